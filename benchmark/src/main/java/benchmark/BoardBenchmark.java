@@ -0,0 +1,57 @@
+package benchmark;
+
+import chess.ChessBoard;
+import chess.Fen;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times copying, hashing and comparing boards, which the server does whenever a
+ * game is handed out or stored
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class BoardBenchmark {
+
+    @Param({"start", "kiwipete", "rook-endgame"})
+    public String position;
+
+    private ChessBoard board;
+    private ChessBoard equalBoard;
+
+    @Setup
+    public void setUp() {
+        board = Fen.parse(Positions.FENS.get(position)).getBoard();
+        equalBoard = board.copy();
+    }
+
+    @Benchmark
+    public ChessBoard copy() {
+        return board.copy();
+    }
+
+    @Benchmark
+    public int boardHashCode() {
+        return board.hashCode();
+    }
+
+    @Benchmark
+    public boolean boardEquals() {
+        return board.equals(equalBoard);
+    }
+}
@@ -0,0 +1,65 @@
+package benchmark;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Fen;
+import chess.InvalidMoveException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times making a move. {@link #makeUnmakeMove} makes and takes back one move on a
+ * board, the step move generation and search repeat. {@link #copyAndMakeMove} plays
+ * it through {@link ChessGame#makeMove}, with its validation and the game-over check
+ * that follows, on a copy of the game the way the server does, so every call starts
+ * from the same position.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class MakeMoveBenchmark {
+
+    @Param({"start", "kiwipete", "italian", "queens-gambit", "rook-endgame", "pawn-endgame"})
+    public String position;
+
+    private ChessGame game;
+    private ChessBoard board;
+    private ChessMove move;
+
+    @Setup
+    public void setUp() {
+        game = Fen.parse(Positions.FENS.get(position));
+        board = game.getBoard().copy();
+        move = game.allValidMoves(game.getTeamTurn()).iterator().next();
+    }
+
+    @Benchmark
+    public long makeUnmakeMove() {
+        var undo = board.makeMove(move);
+        var key = board.getZobristKey();
+        board.unmakeMove(move, undo);
+        return key;
+    }
+
+    @Benchmark
+    public ChessGame copyAndMakeMove() throws InvalidMoveException {
+        var moved = game.copy();
+        moved.makeMove(move);
+        return moved;
+    }
+}
@@ -0,0 +1,90 @@
+package benchmark;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Fen;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times move generation for every piece in a position, both pseudo-legal through
+ * {@link ChessPiece#pieceMoves} and legal through {@link ChessGame#validMoves}, and
+ * the end-of-game check
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class MoveGenerationBenchmark {
+
+    @Param({"start", "kiwipete", "italian", "queens-gambit", "rook-endgame", "pawn-endgame", "fools-mate"})
+    public String position;
+
+    private ChessGame game;
+    private ChessBoard board;
+    private ChessPosition[] squares;
+    private ChessPiece[] pieces;
+    private ChessPosition[] ownSquares;
+
+    @Setup
+    public void setUp() {
+        game = Fen.parse(Positions.FENS.get(position));
+        board = game.getBoard();
+        var occupied = new ArrayList<ChessPosition>();
+        var own = new ArrayList<ChessPosition>();
+        for (var row = 1; row <= 8; row++) {
+            for (var col = 1; col <= 8; col++) {
+                var square = ChessPosition.of(row, col);
+                var piece = board.getPiece(square);
+                if (piece != null) {
+                    occupied.add(square);
+                    if (piece.getTeamColor() == game.getTeamTurn()) {
+                        own.add(square);
+                    }
+                }
+            }
+        }
+        squares = occupied.toArray(new ChessPosition[0]);
+        pieces = new ChessPiece[squares.length];
+        for (var i = 0; i < squares.length; i++) {
+            pieces[i] = board.getPiece(squares[i]);
+        }
+        ownSquares = own.toArray(new ChessPosition[0]);
+    }
+
+    @Benchmark
+    public void pieceMoves(Blackhole blackhole) {
+        for (var i = 0; i < squares.length; i++) {
+            blackhole.consume(pieces[i].pieceMoves(board, squares[i]));
+        }
+    }
+
+    @Benchmark
+    public void validMoves(Blackhole blackhole) {
+        for (var square : ownSquares) {
+            blackhole.consume(game.validMoves(square));
+        }
+    }
+
+    @Benchmark
+    public boolean isInCheckmate() {
+        return game.isInCheckmate(game.getTeamTurn());
+    }
+}
@@ -0,0 +1,24 @@
+package benchmark;
+
+import java.util.Map;
+
+/**
+ * The positions every benchmark runs over, written in FEN. They cover the opening,
+ * busy middlegames with every piece type in play, sparse endgames and a mate.
+ */
+final class Positions {
+
+    static final Map<String, String> FENS = Map.of(
+            "start", "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "italian", "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            "queens-gambit", "r1bq1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP1B1PPP/R2QKB1R w KQ - 0 8",
+            "rook-endgame", "8/5pk1/6p1/8/3R4/6P1/r4PK1/8 w - - 0 40",
+            "pawn-endgame", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "fools-mate", "rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3"
+    );
+
+    private Positions() {
+
+    }
+}
@@ -49,7 +49,7 @@ public class ServerFacade {
     public void joinGame(String authToken, int gameID, ChessGame.TeamColor playerColor) throws Exception {
         httpCommunicator.joinGame(authToken, gameID, playerColor);
         try {
-            webSocketCommunicator.send(new UserGameCommand(UserGameCommand.CommandType.CONNECT, authToken, gameID));
+            webSocketCommunicator.send(new UserGameCommand(UserGameCommand.CommandType.CONNECT, authToken, gameID, true));
         } catch (Exception e) {
             System.out.println(e);
         }
@@ -57,12 +57,19 @@ public class ServerFacade {
 
     public void observeGame(String authToken, int gameID) {
         try {
-            webSocketCommunicator.send(new UserGameCommand(UserGameCommand.CommandType.CONNECT, authToken, gameID));
+            webSocketCommunicator.send(new UserGameCommand(UserGameCommand.CommandType.CONNECT, authToken, gameID, true));
         } catch (Exception e) {
             System.out.println(e);
         }
     }
 
+    /**
+     * Asks for the whole game again, after missing one of its moves
+     */
+    public void syncGame(String authToken, int gameID) throws IOException {
+        webSocketCommunicator.send(new UserGameCommand(UserGameCommand.CommandType.SYNC, authToken, gameID));
+    }
+
     public void leaveGame(String authToken, int gameID) throws IOException {
         webSocketCommunicator.send(new UserGameCommand(UserGameCommand.CommandType.LEAVE, authToken, gameID));
     }
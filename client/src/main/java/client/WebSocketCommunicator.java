@@ -14,6 +14,8 @@ import java.io.*;
 import java.net.URI;
 
 public class WebSocketCommunicator extends Endpoint {
+    private static final Gson SERIALIZER = new Gson();
+
     public Session session;
     private ServerMessageObserver observer;
 
@@ -27,7 +29,7 @@ public class WebSocketCommunicator extends Endpoint {
             @Override
             public void onMessage(String message) {
                 try {
-                    ServerMessage msg = new Gson().fromJson(message, ServerMessage.class);
+                    ServerMessage msg = SERIALIZER.fromJson(message, ServerMessage.class);
                     observer.notify(msg);
                 } catch (Exception e) {
                     System.out.println(e);
@@ -38,7 +40,7 @@ public class WebSocketCommunicator extends Endpoint {
     }
 
     public void send(UserGameCommand command) throws IOException {
-        var cmd = new Gson().toJson(command);
+        var cmd = SERIALIZER.toJson(command);
         session.getBasicRemote().sendText(cmd);
     }
 
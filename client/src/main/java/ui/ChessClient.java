@@ -90,7 +90,42 @@ public class ChessClient implements ServerMessageObserver {
                 currentGame = msg.getGame();
                 displayBoard(msg.getGame().getBoard(), color != null ? color : ChessGame.TeamColor.WHITE, new HashSet<>());
                 break;
+            case MOVE:
+                if (applyMove(msg)) {
+                    displayBoard(currentGame.getBoard(), color != null ? color : ChessGame.TeamColor.WHITE, new HashSet<>());
+                }
+                break;
+        }
+    }
+
+    /**
+     * Plays a move the server sent on our copy of the game, asking for the whole game
+     * instead when a move was missed or ours has drifted from the server's
+     *
+     * @return whether the board changed
+     */
+    private boolean applyMove(ServerMessage msg) {
+        var played = currentGame == null ? -1 : currentGame.moveCount();
+        if (played >= msg.getSeq()) {
+            // Already have it
+            return false;
+        }
+        if (played == msg.getSeq() - 1) {
+            try {
+                currentGame.makeMove(Move.toChessMove(msg.getMove()));
+                if (currentGame.getStatus() == msg.getStatus()) {
+                    return true;
+                }
+            } catch (InvalidMoveException e) {
+                // Fall through and resync
+            }
+        }
+        try {
+            facade.syncGame(authToken, gameID);
+        } catch (Exception e) {
+            System.out.println("Lost track of the game. Try leaving and joining again.");
         }
+        return false;
     }
 
     private boolean parseBasicCommand(String[] command) {
@@ -265,7 +300,7 @@ public class ChessClient implements ServerMessageObserver {
         }
         int col = Character.getNumericValue(coord.toUpperCase().charAt(0)) - 9;
         var row = Integer.parseInt(coord.substring(1, 2));
-        return new ChessPosition(row, col);
+        return ChessPosition.of(row, col);
     }
 
     private ChessPiece.PieceType parsePromotionPiece(String promotion) throws Exception {
@@ -351,7 +386,7 @@ public class ChessClient implements ServerMessageObserver {
             String row = "";
             for (int j = 0; j < 7; j++) {
                 for (int c = 1; c <= 8; c++) {
-                    var square = new ChessPosition(isWhite ? r : (9 - r),
+                    var square = ChessPosition.of(isWhite ? r : (9 - r),
                             isWhite ? c : (9 - c));
                     var piece = board.getPiece(square);
                     if (highlights.contains(square)) {
@@ -0,0 +1,174 @@
+package dataaccess;
+
+import datamodel.AuthData;
+import datamodel.GameData;
+import datamodel.GameQuery;
+import datamodel.GameSummary;
+import datamodel.UserData;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps recently used games and auth tokens in memory in front of another
+ * {@link DataAccess}, so a game being played is read from the database once rather
+ * than on every move, and checking a token is usually a map lookup.
+ * <p>
+ * Writes go straight through to the wrapped data access and then update the
+ * cache; if a write fails, including losing a version check, the game is dropped
+ * from the cache so the next read loads what was actually stored. Deleting a token removes it from the cache
+ * whether or not the delete succeeds, so a logged out token is never accepted
+ * from memory, even by a read that loaded it just before the delete. Unknown
+ * tokens are not cached. Everything else is passed through untouched.
+ * <p>
+ * A game changed by another server is only noticed when a write from the cached
+ * copy fails its version check. A token logged out on another server stays usable
+ * here until its entry expires, which counts from when it was cached however often
+ * it is used, so keep that time short when servers share a database.
+ */
+public class CachingDataAccess implements DataAccess {
+
+    private final DataAccess delegate;
+    private final ExpiringLruCache<Integer, GameData> games;
+    private final ExpiringLruCache<String, AuthData> auths;
+    // Goes up after every token delete, so a read that loaded a token from the
+    // delegate can tell a delete may have removed it before it was cached
+    private final AtomicLong authDeletes = new AtomicLong();
+
+    public CachingDataAccess(DataAccess delegate, int maxGames, long gameIdleTimeoutMillis, int maxAuths,
+                             long authTimeToLiveMillis) {
+        this(delegate, new ExpiringLruCache<>(maxGames, gameIdleTimeoutMillis),
+                new ExpiringLruCache<>(maxAuths, authTimeToLiveMillis, false));
+    }
+
+    CachingDataAccess(DataAccess delegate, ExpiringLruCache<Integer, GameData> games,
+                      ExpiringLruCache<String, AuthData> auths) {
+        this.delegate = delegate;
+        this.games = games;
+        this.auths = auths;
+    }
+
+    /**
+     * @return the game cache, for reading its hit and miss counts
+     */
+    public ExpiringLruCache<Integer, GameData> gameCache() {
+        return games;
+    }
+
+    /**
+     * @return the auth token cache, for reading its hit and miss counts
+     */
+    public ExpiringLruCache<String, AuthData> authCache() {
+        return auths;
+    }
+
+    @Override
+    public void clear() {
+        try {
+            delegate.clear();
+        } finally {
+            games.clear();
+            auths.clear();
+        }
+    }
+
+    @Override
+    public void createUser(UserData user) {
+        delegate.createUser(user);
+    }
+
+    @Override
+    public UserData getUser(String username) {
+        return delegate.getUser(username);
+    }
+
+    @Override
+    public int allocateGameID() {
+        return delegate.allocateGameID();
+    }
+
+    @Override
+    public void createGame(GameData game) {
+        writeThrough(game, () -> delegate.createGame(game), game);
+    }
+
+    @Override
+    public GameData getGame(int gameID) throws DataAccessException {
+        var game = games.get(gameID);
+        if (game == null) {
+            game = delegate.getGame(gameID);
+            if (game != null) {
+                games.put(gameID, game);
+            }
+        }
+        return game;
+    }
+
+    @Override
+    public Collection<GameData> listGames() {
+        return delegate.listGames();
+    }
+
+    @Override
+    public List<GameSummary> listGameSummaries(GameQuery query) {
+        return delegate.listGameSummaries(query);
+    }
+
+    @Override
+    public void updateGame(GameData game) {
+        writeThrough(game, () -> delegate.updateGame(game), game.nextVersion());
+    }
+
+    @Override
+    public void recordMove(GameData game) {
+        writeThrough(game, () -> delegate.recordMove(game), game.nextVersion());
+    }
+
+    @Override
+    public void createAuth(AuthData authData) {
+        delegate.createAuth(authData);
+        auths.put(authData.authToken(), authData);
+    }
+
+    @Override
+    public void deleteAuth(String authToken) {
+        auths.remove(authToken);
+        try {
+            delegate.deleteAuth(authToken);
+        } finally {
+            authDeletes.incrementAndGet();
+            auths.remove(authToken);
+        }
+    }
+
+    @Override
+    public AuthData getAuth(String authToken) {
+        var auth = auths.get(authToken);
+        if (auth == null) {
+            var deletes = authDeletes.get();
+            auth = delegate.getAuth(authToken);
+            if (auth != null) {
+                auths.put(authToken, auth);
+                if (authDeletes.get() != deletes) {
+                    // A delete finished while this was loading and may have been for
+                    // this token, so do not keep what it loaded
+                    auths.remove(authToken);
+                }
+            }
+        }
+        return auth;
+    }
+
+    private void writeThrough(GameData game, Runnable write, GameData stored) {
+        try {
+            write.run();
+        } catch (RuntimeException e) {
+            // The cached copy may already hold the change that failed to save, or be
+            // out of date if the write lost to a change made elsewhere
+            games.remove(game.gameID());
+            throw e;
+        }
+        games.put(game.gameID(), stored);
+    }
+}
@@ -0,0 +1,274 @@
+package dataaccess;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bounded pool of database connections. Handing a connection back is done by
+ * closing it as usual, so callers keep using try-with-resources.
+ * <p>
+ * At most {@code maxSize} connections are open or lent out at once; callers past
+ * that wait up to {@code maxWaitMillis} for one to come back. Connections left
+ * idle longer than {@code idleTimeoutMillis} are closed by a background sweep, and
+ * a connection that has sat idle for a while is checked with
+ * {@link Connection#isValid} before being lent out again.
+ */
+class ConnectionPool implements AutoCloseable {
+
+    /**
+     * Opens a new physical connection
+     */
+    interface ConnectionFactory {
+        Connection connect() throws SQLException;
+    }
+
+    // Connections used more recently than this are lent out without validating
+    private static final long VALIDATE_AFTER_IDLE_MILLIS = 1_000;
+
+    private final ConnectionFactory factory;
+    private final long idleTimeoutMillis;
+    private final long maxWaitMillis;
+    private final int validationTimeoutSeconds;
+
+    private final Semaphore permits;
+    // Most recently returned last, so the warmest connection is reused first
+    private final ArrayDeque<Idle> idle = new ArrayDeque<>();
+    private final ScheduledExecutorService evictor;
+    private boolean closed;
+
+    private record Idle(Connection connection, long returnedAt) {
+    }
+
+    ConnectionPool(ConnectionFactory factory, int maxSize, long idleTimeoutMillis, long maxWaitMillis,
+                   int validationTimeoutSeconds) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1");
+        }
+        this.factory = factory;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.maxWaitMillis = maxWaitMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        permits = new Semaphore(maxSize, true);
+
+        evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "connection-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        var sweepMillis = Math.max(idleTimeoutMillis / 2, 1_000);
+        evictor.scheduleWithFixedDelay(this::evictIdle, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Lends out a connection, waiting for one to be returned if the pool is at its
+     * limit. Close the connection to give it back.
+     *
+     * @throws SQLException if no connection frees up in time or a new one can't be opened
+     */
+    Connection getConnection() throws SQLException {
+        try {
+            if (!permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + maxWaitMillis + "ms waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for a database connection", e);
+        }
+        try {
+            var physical = takeIdle();
+            if (physical == null) {
+                physical = factory.connect();
+            }
+            return lend(physical);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * @return a usable idle connection, or null if there are none
+     */
+    private Connection takeIdle() {
+        while (true) {
+            Idle entry;
+            synchronized (this) {
+                if (closed) {
+                    throw new IllegalStateException("Connection pool is closed");
+                }
+                entry = idle.pollLast();
+            }
+            if (entry == null) {
+                return null;
+            }
+            var idleFor = System.currentTimeMillis() - entry.returnedAt();
+            if (idleFor > idleTimeoutMillis) {
+                closeQuietly(entry.connection());
+            } else if (idleFor > VALIDATE_AFTER_IDLE_MILLIS && !isValid(entry.connection())) {
+                closeQuietly(entry.connection());
+            } else {
+                return entry.connection();
+            }
+        }
+    }
+
+    private boolean isValid(Connection connection) {
+        try {
+            return connection.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private Connection lend(Connection physical) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new Lease(physical));
+    }
+
+    /**
+     * Takes back a lent connection, keeping it for reuse unless it is broken
+     */
+    private void giveBack(Connection physical, boolean broken) {
+        try {
+            if (broken || physical.isClosed()) {
+                closeQuietly(physical);
+                return;
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            synchronized (this) {
+                if (!closed) {
+                    idle.addLast(new Idle(physical, System.currentTimeMillis()));
+                    return;
+                }
+            }
+            closeQuietly(physical);
+        } catch (SQLException e) {
+            closeQuietly(physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Closes connections that have been idle longer than the idle timeout
+     */
+    void evictIdle() {
+        var expired = new ArrayList<Connection>();
+        var cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+        synchronized (this) {
+            var iterator = idle.iterator();
+            while (iterator.hasNext()) {
+                var entry = iterator.next();
+                if (entry.returnedAt() < cutoff) {
+                    expired.add(entry.connection());
+                    iterator.remove();
+                }
+            }
+        }
+        expired.forEach(ConnectionPool::closeQuietly);
+    }
+
+    synchronized int idleCount() {
+        return idle.size();
+    }
+
+    @Override
+    public void close() {
+        evictor.shutdownNow();
+        var toClose = new ArrayList<Connection>();
+        synchronized (this) {
+            closed = true;
+            idle.forEach(entry -> toClose.add(entry.connection()));
+            idle.clear();
+        }
+        toClose.forEach(ConnectionPool::closeQuietly);
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // Already unusable, nothing more to do
+        }
+    }
+
+    /**
+     * Stands in for a physical connection while it is lent out. Closing it closes any
+     * statements left open and returns the connection to the pool instead.
+     */
+    private class Lease implements InvocationHandler {
+        private final Connection physical;
+        private final ArrayList<Statement> statements = new ArrayList<>();
+        private boolean returned;
+        private boolean broken;
+
+        Lease(Connection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    release();
+                    return null;
+                case "isClosed":
+                    return returned || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled " + physical;
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            try {
+                var result = method.invoke(physical, args);
+                if (result instanceof Statement statement) {
+                    statements.add(statement);
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                var cause = e.getCause();
+                if (cause instanceof SQLException sqlException && isConnectionError(sqlException)) {
+                    broken = true;
+                }
+                throw cause;
+            }
+        }
+
+        private void release() {
+            if (returned) {
+                return;
+            }
+            returned = true;
+            statements.forEach(ConnectionPool::closeQuietly);
+            statements.clear();
+            giveBack(physical, broken);
+        }
+
+        // SQL states in class 08 mean the connection itself failed
+        private static boolean isConnectionError(SQLException e) {
+            var state = e.getSQLState();
+            return state != null && state.startsWith("08");
+        }
+    }
+}
@@ -2,9 +2,12 @@ package dataaccess;
 
 import datamodel.AuthData;
 import datamodel.GameData;
+import datamodel.GameQuery;
+import datamodel.GameSummary;
 import datamodel.UserData;
 
 import java.util.Collection;
+import java.util.List;
 
 public interface DataAccess {
     void clear();
@@ -13,14 +16,47 @@ public interface DataAccess {
 
     UserData getUser(String username);
 
+    /**
+     * @return a gameID no other game has been given, even across restarts
+     */
+    int allocateGameID();
+
     void createGame(GameData game);
 
     GameData getGame(int gameID) throws DataAccessException;
 
     Collection<GameData> listGames();
 
+    /**
+     * Lists every game without loading its board, for when only the players and
+     * name are needed
+     */
+    default Collection<GameSummary> listGameSummaries() {
+        return listGameSummaries(GameQuery.ALL);
+    }
+
+    /**
+     * Lists the games a query picks out, in gameID order, without loading their boards
+     */
+    List<GameSummary> listGameSummaries(GameQuery query);
+
+    /**
+     * Saves a changed game, as long as the stored game is still at
+     * {@code game.version()}. The stored game then has the next version.
+     *
+     * @throws GameConflictException if the game has been changed since it was read
+     */
     void updateGame(GameData game);
 
+    /**
+     * Saves the move just made in a game, which is the last one in its history.
+     * Cheaper than {@link #updateGame} when only the board has changed, with the
+     * same version check.
+     *
+     * @throws GameConflictException if the game has been changed since it was read
+     */
+    void recordMove(GameData game);
+
     void createAuth(AuthData authData);
 
     void deleteAuth(String authToken);
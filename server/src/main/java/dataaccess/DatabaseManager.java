@@ -8,9 +8,15 @@ public class DatabaseManager {
     private static String dbUsername;
     private static String dbPassword;
     private static String connectionUrl;
+    private static ConnectionPool pool;
 
     /*
-     * Load the database information for the db.properties file.
+     * Load the database information for the db.properties file. Besides the
+     * connection settings, the pool reads these optional keys:
+     *   db.pool.size                       most connections open at once (10)
+     *   db.pool.idleTimeoutSeconds         close connections idle this long (300)
+     *   db.pool.maxWaitMillis              how long to wait for a free connection (5000)
+     *   db.pool.validationTimeoutSeconds   time allowed to check a connection (2)
      */
     static {
         loadPropertiesFromResources();
@@ -30,9 +36,10 @@ public class DatabaseManager {
     }
 
     /**
-     * Create a connection to the database and sets the catalog based upon the
-     * properties specified in db.properties. Connections to the database should
-     * be short-lived, and you must close the connection when you are done with it.
+     * Borrows a connection to the database from the pool, with the catalog set
+     * based upon the properties specified in db.properties. Connections to the
+     * database should be short-lived, and you must close the connection when you
+     * are done with it, which hands it back to the pool.
      * The easiest way to do that is with a try-with-resource block.
      * <br/>
      * <code>
@@ -44,9 +51,7 @@ public class DatabaseManager {
     static Connection getConnection() throws DataAccessException {
         try {
             //do not wrap the following line with a try-with-resources
-            var conn = DriverManager.getConnection(connectionUrl, dbUsername, dbPassword);
-            conn.setCatalog(databaseName);
-            return conn;
+            return pool.getConnection();
         } catch (SQLException ex) {
             throw new DataAccessException("failed to get connection", ex);
         }
@@ -73,5 +78,23 @@ public class DatabaseManager {
         var host = props.getProperty("db.host");
         var port = Integer.parseInt(props.getProperty("db.port"));
         connectionUrl = String.format("jdbc:mysql://%s:%d", host, port);
+
+        var poolSize = Integer.parseInt(props.getProperty("db.pool.size", "10"));
+        var idleTimeoutSeconds = Long.parseLong(props.getProperty("db.pool.idleTimeoutSeconds", "300"));
+        var maxWaitMillis = Long.parseLong(props.getProperty("db.pool.maxWaitMillis", "5000"));
+        var validationTimeoutSeconds = Integer.parseInt(props.getProperty("db.pool.validationTimeoutSeconds", "2"));
+        pool = new ConnectionPool(DatabaseManager::openConnection, poolSize, idleTimeoutSeconds * 1000,
+                maxWaitMillis, validationTimeoutSeconds);
+    }
+
+    private static Connection openConnection() throws SQLException {
+        var conn = DriverManager.getConnection(connectionUrl, dbUsername, dbPassword);
+        try {
+            conn.setCatalog(databaseName);
+        } catch (SQLException ex) {
+            conn.close();
+            throw ex;
+        }
+        return conn;
     }
 }
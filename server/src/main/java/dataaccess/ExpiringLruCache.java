@@ -0,0 +1,137 @@
+package dataaccess;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * A bounded map that forgets the least recently used entry once it is full, and
+ * forgets any entry older than its timeout. The timeout counts either from the
+ * last time the entry was read or written, or, when reads do not refresh it, from
+ * when it was put in. Counts hits and misses so its usefulness can be checked.
+ * Safe to share between threads.
+ */
+public class ExpiringLruCache<K, V> {
+
+    private final int maxSize;
+    private final long timeoutNanos;
+    // Whether a read restarts an entry's timeout, or it only counts from the put
+    private final boolean refreshOnRead;
+    private final LongSupplier clock;
+
+    // Access ordered, so iteration starts at the entry touched longest ago
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    private static final class Entry<V> {
+        final V value;
+        long touchedAt;
+
+        Entry(V value, long touchedAt) {
+            this.value = value;
+            this.touchedAt = touchedAt;
+        }
+    }
+
+    public ExpiringLruCache(int maxSize, long idleTimeoutMillis) {
+        this(maxSize, idleTimeoutMillis, true);
+    }
+
+    public ExpiringLruCache(int maxSize, long timeoutMillis, boolean refreshOnRead) {
+        this(maxSize, timeoutMillis, refreshOnRead, System::nanoTime);
+    }
+
+    ExpiringLruCache(int maxSize, long timeoutMillis, boolean refreshOnRead, LongSupplier nanoClock) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1");
+        }
+        this.maxSize = maxSize;
+        this.timeoutNanos = timeoutMillis * 1_000_000;
+        this.refreshOnRead = refreshOnRead;
+        this.clock = nanoClock;
+        entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > ExpiringLruCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return the cached value, or null if there is none or it has timed out
+     */
+    public synchronized V get(K key) {
+        var now = clock.getAsLong();
+        var entry = entries.get(key);
+        if (entry == null || now - entry.touchedAt > timeoutNanos) {
+            if (entry != null) {
+                entries.remove(key);
+                evictions++;
+            }
+            misses++;
+            return null;
+        }
+        if (refreshOnRead) {
+            entry.touchedAt = now;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    public synchronized void put(K key, V value) {
+        var now = clock.getAsLong();
+        evictExpired(now);
+        entries.put(key, new Entry<>(value, now));
+    }
+
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    // The least recently used entries come first, so stop at the first one still
+    // fresh. When reads do not refresh the timeout that can leave some timed out
+    // entries further along, but get never returns them and they still count
+    // towards the size limit.
+    private void evictExpired(long now) {
+        Iterator<Entry<V>> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().touchedAt <= timeoutNanos) {
+                return;
+            }
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "size=" + entries.size() + " hits=" + hits + " misses=" + misses + " evictions=" + evictions;
+    }
+}
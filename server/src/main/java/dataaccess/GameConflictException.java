@@ -0,0 +1,11 @@
+package dataaccess;
+
+/**
+ * Indicates a game could not be saved because it was changed by someone else after
+ * it was read
+ */
+public class GameConflictException extends DataAccessException {
+    public GameConflictException(String message) {
+        super(message);
+    }
+}
@@ -2,101 +2,123 @@ package dataaccess;
 
 import datamodel.AuthData;
 import datamodel.GameData;
+import datamodel.GameQuery;
+import datamodel.GameSummary;
 import datamodel.UserData;
 import service.UnauthorizedException;
+import service.UserAlreadyRegisteredException;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Keeps everything in memory, indexed by username, gameID and auth token. Safe to
+ * use from many request threads at once.
+ */
 public class MemoryDataAccess implements DataAccess {
 
-    private HashSet<AuthData> authDataSet;
-    private HashSet<GameData> gameDataSet;
-    private HashSet<UserData> userDataSet;
-
-    public MemoryDataAccess() {
-
-        this.authDataSet = new HashSet<AuthData>();
-        this.gameDataSet = new HashSet<GameData>();
-        this.userDataSet = new HashSet<UserData>();
-    }
+    private final ConcurrentHashMap<String, AuthData> authByToken = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, GameData> gameByID = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, UserData> userByName = new ConcurrentHashMap<>();
+    private final AtomicInteger lastGameID = new AtomicInteger();
 
     @Override
     public void clear() {
-        authDataSet = new HashSet<AuthData>();
-        gameDataSet = new HashSet<GameData>();
-        userDataSet = new HashSet<UserData>();
+        authByToken.clear();
+        gameByID.clear();
+        userByName.clear();
     }
 
     @Override
     public void createUser(UserData user) {
-        userDataSet.add(user);
+        if (userByName.putIfAbsent(user.username(), user) != null) {
+            throw new UserAlreadyRegisteredException("Username is already taken");
+        }
     }
 
     @Override
     public UserData getUser(String username) {
-        for (var u : userDataSet) {
-            if (u.username().equals(username)) {
-                return u;
-            }
-        }
-        return null;
+        return username == null ? null : userByName.get(username);
+    }
+
+    @Override
+    public int allocateGameID() {
+        return lastGameID.incrementAndGet();
     }
 
     @Override
     public void createGame(GameData game) {
-        gameDataSet.add(game);
+        gameByID.put(game.gameID(), game);
     }
 
     @Override
     public GameData getGame(int gameID) throws DataAccessException {
-        for (var g : gameDataSet) {
-            if (g.gameID() == gameID) {
-                return g;
-            }
+        var game = gameByID.get(gameID);
+        if (game == null) {
+            throw new DataAccessException("Game ID is invalid");
         }
-        throw new DataAccessException("Game ID is invalid");
-
+        return game;
     }
 
     @Override
     public Collection<GameData> listGames() {
-        return gameDataSet;
+        return new HashSet<>(gameByID.values());
+    }
+
+    @Override
+    public List<GameSummary> listGameSummaries(GameQuery query) {
+        var matching = new ArrayList<GameData>();
+        for (var g : gameByID.values()) {
+            if (query.matches(g)) {
+                matching.add(g);
+            }
+        }
+        matching.sort(Comparator.comparingInt(GameData::gameID));
+        var summaries = new ArrayList<GameSummary>(Math.min(matching.size(), query.limit()));
+        for (var g : matching.subList(0, Math.min(matching.size(), query.limit()))) {
+            summaries.add(new GameSummary(g.gameID(), g.whiteUsername(), g.blackUsername(), g.gameName()));
+        }
+        return summaries;
     }
 
     @Override
     public void updateGame(GameData game) {
-        gameDataSet.removeIf(g -> g.gameID() == game.gameID());
-        gameDataSet.add(game);
+        gameByID.compute(game.gameID(), (gameID, stored) -> {
+            if (stored != null && stored.version() != game.version()) {
+                throw new GameConflictException("Game " + gameID + " was changed by someone else");
+            }
+            return game.nextVersion();
+        });
+    }
+
+    @Override
+    public void recordMove(GameData game) {
+        updateGame(game);
     }
 
     @Override
     public void createAuth(AuthData authData) {
-        authDataSet.add(authData);
+        authByToken.put(authData.authToken(), authData);
     }
 
     @Override
     public void deleteAuth(String authToken) {
-        AuthData authData = null;
-        for (var a : authDataSet) {
-            if (a.authToken().equals(authToken)) {
-                authData = a;
-                break;
-            }
-        }
-        if (authData == null) {
+        if (authToken == null || authByToken.remove(authToken) == null) {
             throw new UnauthorizedException("The given authToken is invalid");
         }
-        authDataSet.remove(authData);
     }
 
+    @Override
     public AuthData getAuth(String authToken) {
-        for (var a : authDataSet) {
-            if (a.authToken().equals(authToken)) {
-                return a;
-            }
+        var authData = authToken == null ? null : authByToken.get(authToken);
+        if (authData == null) {
+            throw new UnauthorizedException("Authtoken is invalid");
         }
-        throw new UnauthorizedException("Authtoken is invalid");
+        return authData;
     }
 }
@@ -1,22 +1,33 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessGameCodec;
+import chess.InvalidMoveException;
+import chess.LegacyGameReader;
+import chess.Move;
 import com.google.gson.Gson;
 import com.google.gson.Gson.*;
 import datamodel.AuthData;
 import datamodel.GameData;
+import datamodel.GameQuery;
+import datamodel.GameSummary;
 import datamodel.UserData;
 import service.UnauthorizedException;
 
-import java.io.*;
 import java.sql.*;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
 public class MySQLDataAccess implements DataAccess {
 
+    // A move is saved as one row in gameMoves, and every this many moves the whole
+    // game is written back so rebuilding it never replays more than this many moves
+    private static final int SNAPSHOT_INTERVAL = 20;
+
     public MySQLDataAccess() throws DataAccessException {
         configureDatabase();
     }
@@ -48,8 +59,28 @@ public class MySQLDataAccess implements DataAccess {
             blackUsername VARCHAR(256),
             gameName VARCHAR(256) NOT NULL,
             game BLOB NOT NULL,
+            snapshotSeq INT NOT NULL DEFAULT 0,
+            isOver BOOLEAN NOT NULL DEFAULT FALSE,
+            version INT NOT NULL DEFAULT 0,
             PRIMARY KEY (gameID),
-            INDEX (gameName)
+            INDEX (gameName),
+            INDEX whiteUsername (whiteUsername),
+            INDEX blackUsername (blackUsername),
+            INDEX isOver (isOver, gameID)
+        )
+        """,
+                """
+        CREATE TABLE IF NOT EXISTS  gameMoves (
+            gameID INT NOT NULL,
+            seq INT NOT NULL,
+            move INT NOT NULL,
+            PRIMARY KEY (gameID, seq)
+        )
+        """,
+                """
+        CREATE TABLE IF NOT EXISTS  gameIDs (
+            id INT NOT NULL AUTO_INCREMENT,
+            PRIMARY KEY (id)
         )
         """
         };
@@ -61,6 +92,116 @@ public class MySQLDataAccess implements DataAccess {
                 throw new DataAccessException("failed to add table number " + Integer.toString(i));
             }
         }
+        // Every column getGame reads has to exist before the isOver backfill reads games
+        ensureColumn("gameData", "snapshotSeq", "INT NOT NULL DEFAULT 0");
+        ensureColumn("gameData", "version", "INT NOT NULL DEFAULT 0");
+        if (ensureColumn("gameData", "isOver", "BOOLEAN NOT NULL DEFAULT FALSE")) {
+            markFinishedGames();
+        }
+        ensureIndex("gameData", "whiteUsername", "whiteUsername");
+        ensureIndex("gameData", "blackUsername", "blackUsername");
+        ensureIndex("gameData", "isOver", "isOver, gameID");
+        seedGameIDs();
+    }
+
+    /**
+     * Starts handing out gameIDs after the highest one already stored, for databases
+     * made before IDs were allocated here
+     */
+    private void seedGameIDs() {
+        try (var conn = DatabaseManager.getConnection()) {
+            try (var result = conn.prepareStatement("SELECT 1 FROM gameIDs LIMIT 1").executeQuery()) {
+                if (result.next()) {
+                    return;
+                }
+            }
+            var preparedStatement = conn.prepareStatement(
+                    "INSERT INTO gameIDs (id) SELECT MAX(gameID) FROM gameData HAVING MAX(gameID) IS NOT NULL");
+            preparedStatement.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to seed game IDs because " + e.toString());
+        }
+    }
+
+    /**
+     * Adds a column to a table created before the column existed
+     *
+     * @return whether the column had to be added
+     */
+    private boolean ensureColumn(String table, String column, String definition) {
+        try (var conn = DatabaseManager.getConnection()) {
+            try (var columns = conn.getMetaData().getColumns(conn.getCatalog(), null, table, column)) {
+                if (columns.next()) {
+                    return false;
+                }
+            }
+            var preparedStatement = conn.prepareStatement("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+            preparedStatement.executeUpdate();
+            return true;
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to add column " + column + " to " + table + " because " + e.toString());
+        }
+    }
+
+    /**
+     * Adds an index to a table created before the index existed
+     */
+    private void ensureIndex(String table, String index, String columns) {
+        try (var conn = DatabaseManager.getConnection()) {
+            try (var indexes = conn.getMetaData().getIndexInfo(conn.getCatalog(), null, table, false, false)) {
+                while (indexes.next()) {
+                    if (index.equalsIgnoreCase(indexes.getString("INDEX_NAME"))) {
+                        return;
+                    }
+                }
+            }
+            var preparedStatement = conn.prepareStatement("CREATE INDEX " + index + " ON " + table + " (" + columns + ")");
+            preparedStatement.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to add index " + index + " to " + table + " because " + e.toString());
+        }
+    }
+
+    /**
+     * Fills in isOver for games stored before the column existed. A game that can
+     * no longer be read is left marked as in progress rather than stopping the
+     * server from starting, and is corrected the next time it is saved.
+     */
+    private void markFinishedGames() {
+        var finished = new ArrayList<Integer>();
+        for (var gameID : storedGameIDs()) {
+            try {
+                var game = getGame(gameID);
+                if (game != null && game.game().isOver()) {
+                    finished.add(gameID);
+                }
+            } catch (DataAccessException | IllegalArgumentException e) {
+                System.out.println("Left game " + gameID + " as in progress because " + e.getMessage());
+            }
+        }
+        try (var conn = DatabaseManager.getConnection()) {
+            var preparedStatement = conn.prepareStatement("UPDATE gameData SET isOver=TRUE WHERE gameID=?");
+            for (var gameID : finished) {
+                preparedStatement.setInt(1, gameID);
+                preparedStatement.executeUpdate();
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to mark finished games because " + e.toString());
+        }
+    }
+
+    private List<Integer> storedGameIDs() {
+        try (var conn = DatabaseManager.getConnection()) {
+            var gameIDs = new ArrayList<Integer>();
+            try (var result = conn.prepareStatement("SELECT gameID FROM gameData").executeQuery()) {
+                while (result.next()) {
+                    gameIDs.add(result.getInt("gameID"));
+                }
+            }
+            return gameIDs;
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to list game IDs because " + e.toString());
+        }
     }
 
     @Override
@@ -72,6 +213,8 @@ public class MySQLDataAccess implements DataAccess {
             preparedStatement.executeUpdate();
             preparedStatement = conn.prepareStatement("DELETE FROM gameData");
             preparedStatement.executeUpdate();
+            preparedStatement = conn.prepareStatement("DELETE FROM gameMoves");
+            preparedStatement.executeUpdate();
         } catch (SQLException e) {
             throw new DataAccessException("failed to remove database");
         }
@@ -107,23 +250,47 @@ public class MySQLDataAccess implements DataAccess {
         return null;
     }
 
+    /**
+     * Takes the next value of the gameIDs auto increment, which the database hands
+     * out atomically and remembers across restarts. Only the newest row is kept.
+     */
+    @Override
+    public int allocateGameID() {
+        try (var conn = DatabaseManager.getConnection()) {
+            var preparedStatement = conn.prepareStatement("INSERT INTO gameIDs () VALUES ()", Statement.RETURN_GENERATED_KEYS);
+            preparedStatement.executeUpdate();
+            int gameID;
+            try (var keys = preparedStatement.getGeneratedKeys()) {
+                if (!keys.next()) {
+                    throw new DataAccessException("no game ID was generated");
+                }
+                gameID = keys.getInt(1);
+            }
+            preparedStatement = conn.prepareStatement("DELETE FROM gameIDs WHERE id < ?");
+            preparedStatement.setInt(1, gameID);
+            preparedStatement.executeUpdate();
+            return gameID;
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to allocate a game ID because " + e.toString());
+        }
+    }
+
     @Override
     public void createGame(GameData game) {
         try (var conn = DatabaseManager.getConnection()) {
-            var preparedStatement = conn.prepareStatement("INSERT INTO gameData VALUES (?, ?, ?, ?, ?)");
+            var preparedStatement = conn.prepareStatement(
+                    "INSERT INTO gameData (gameID, whiteUsername, blackUsername, gameName, game, snapshotSeq, isOver) "
+                            + "VALUES (?, ?, ?, ?, ?, ?, ?)");
             preparedStatement.setInt(1, game.gameID());
             preparedStatement.setString(2, game.whiteUsername());
             preparedStatement.setString(3, game.blackUsername());
             preparedStatement.setString(4, game.gameName());
-            var byteOutputStream = new ByteArrayOutputStream();
-            var objectOutputStream = new ObjectOutputStream(byteOutputStream);
-            objectOutputStream.writeObject(game.game());
-            preparedStatement.setBytes(5, byteOutputStream.toByteArray());
+            preparedStatement.setBytes(5, ChessGameCodec.encode(game.game()));
+            preparedStatement.setInt(6, game.game().getHistory().size());
+            preparedStatement.setBoolean(7, game.game().isOver());
             preparedStatement.executeUpdate();
         } catch (SQLException e) {
             throw new DataAccessException("failed to add user because " + e.toString());
-        } catch (IOException e) {
-            throw new RuntimeException(e);
         }
     }
 
@@ -134,16 +301,18 @@ public class MySQLDataAccess implements DataAccess {
             preparedStatement.setInt(1, gameID);
             try (var result = preparedStatement.executeQuery()) {
                 while (result.next()) {
-                    ByteArrayInputStream bais = new ByteArrayInputStream(result.getBytes("game"));
-                    ObjectInputStream ois = new ObjectInputStream(bais);
-                    ChessGame loadedGame = (ChessGame) ois.readObject();
+                    var game = readGame(result.getBytes("game"));
+                    var movesAfter = conn.prepareStatement("SELECT move FROM gameMoves WHERE gameID=? AND seq>? ORDER BY seq");
+                    movesAfter.setInt(1, gameID);
+                    movesAfter.setInt(2, result.getInt("snapshotSeq"));
+                    try (var moves = movesAfter.executeQuery()) {
+                        while (moves.next()) {
+                            replay(game, moves.getInt("move"));
+                        }
+                    }
                     return new GameData(result.getInt("gameID"), result.getString("whiteUsername"), result.getString("blackUsername"),
-                            result.getString("gameName"), loadedGame);
+                            result.getString("gameName"), game, result.getInt("version"));
                 }
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            } catch (ClassNotFoundException e) {
-                throw new RuntimeException(e);
             }
 
         } catch (SQLException e) {
@@ -156,48 +325,175 @@ public class MySQLDataAccess implements DataAccess {
     public Collection<GameData> listGames() {
         try (var conn = DatabaseManager.getConnection()) {
             var preparedStatement = conn.prepareStatement("SELECT * FROM gameData");
+            var allGames = new HashMap<Integer, GameData>();
             try (var result = preparedStatement.executeQuery()) {
-                var allGames = new HashSet<GameData>();
                 while (result.next()) {
-                    ByteArrayInputStream bais = new ByteArrayInputStream(result.getBytes("game"));
-                    ObjectInputStream ois = new ObjectInputStream(bais);
-                    ChessGame loadedGame = (ChessGame) ois.readObject();
-                    allGames.add(new GameData(result.getInt("gameID"), result.getString("whiteUsername"),
-                            result.getString("blackUsername"), result.getString("gameName"), loadedGame));
+                    allGames.put(result.getInt("gameID"), new GameData(result.getInt("gameID"), result.getString("whiteUsername"),
+                            result.getString("blackUsername"), result.getString("gameName"), readGame(result.getBytes("game")),
+                            result.getInt("version")));
                 }
-                return allGames;
-            } catch (ClassNotFoundException e) {
-                throw new RuntimeException(e);
-            } catch (IOException e) {
-                throw new RuntimeException(e);
             }
+            var movesAfter = conn.prepareStatement("""
+                    SELECT m.gameID, m.move FROM gameMoves m JOIN gameData g ON m.gameID = g.gameID
+                    WHERE m.seq > g.snapshotSeq ORDER BY m.gameID, m.seq""");
+            try (var moves = movesAfter.executeQuery()) {
+                while (moves.next()) {
+                    replay(allGames.get(moves.getInt("gameID")).game(), moves.getInt("move"));
+                }
+            }
+            return new HashSet<>(allGames.values());
 
         } catch (SQLException e) {
             throw new DataAccessException("failed to get user because " + e.toString());
         }
     }
 
+    @Override
+    public List<GameSummary> listGameSummaries(GameQuery query) {
+        var sql = new StringBuilder("SELECT gameID, whiteUsername, blackUsername, gameName FROM gameData WHERE gameID > ?");
+        if (query.openSeatOnly()) {
+            sql.append(" AND (whiteUsername IS NULL OR blackUsername IS NULL)");
+        }
+        if (query.player() != null) {
+            sql.append(" AND (whiteUsername = ? OR blackUsername = ?)");
+        }
+        if (query.finished() != null) {
+            sql.append(" AND isOver = ?");
+        }
+        sql.append(" ORDER BY gameID");
+        if (query.limit() != GameQuery.NO_LIMIT) {
+            sql.append(" LIMIT ?");
+        }
+        try (var conn = DatabaseManager.getConnection()) {
+            var preparedStatement = conn.prepareStatement(sql.toString());
+            var parameter = 1;
+            preparedStatement.setInt(parameter++, query.afterGameID());
+            if (query.player() != null) {
+                preparedStatement.setString(parameter++, query.player());
+                preparedStatement.setString(parameter++, query.player());
+            }
+            if (query.finished() != null) {
+                preparedStatement.setBoolean(parameter++, query.finished());
+            }
+            if (query.limit() != GameQuery.NO_LIMIT) {
+                preparedStatement.setInt(parameter, query.limit());
+            }
+            try (var result = preparedStatement.executeQuery()) {
+                var summaries = new ArrayList<GameSummary>();
+                while (result.next()) {
+                    summaries.add(new GameSummary(result.getInt("gameID"), result.getString("whiteUsername"),
+                            result.getString("blackUsername"), result.getString("gameName")));
+                }
+                return summaries;
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to list games because " + e.toString());
+        }
+    }
+
     @Override
     public void updateGame(GameData game) {
         try (var conn = DatabaseManager.getConnection()) {
-            var preparedStatement = conn.prepareStatement("UPDATE gameData SET whiteUsername=?, blackUsername=?, gameName=?, game=? WHERE gameID=?");
+            var preparedStatement = conn.prepareStatement("""
+                    UPDATE gameData SET whiteUsername=?, blackUsername=?, gameName=?, game=?, snapshotSeq=?, isOver=?,
+                    version=version+1 WHERE gameID=? AND version=?""");
             preparedStatement.setString(1, game.whiteUsername());
             preparedStatement.setString(2, game.blackUsername());
             preparedStatement.setString(3, game.gameName());
-            var byteOutputStream = new ByteArrayOutputStream();
-            var objectOutputStream = new ObjectOutputStream(byteOutputStream);
-            objectOutputStream.writeObject(game.game());
-            preparedStatement.setBytes(4, byteOutputStream.toByteArray());
-            preparedStatement.setInt(5, game.gameID());
+            preparedStatement.setBytes(4, ChessGameCodec.encode(game.game()));
+            preparedStatement.setInt(5, game.game().getHistory().size());
+            preparedStatement.setBoolean(6, game.game().isOver());
+            preparedStatement.setInt(7, game.gameID());
+            preparedStatement.setInt(8, game.version());
 
-            preparedStatement.executeUpdate();
+            if (preparedStatement.executeUpdate() == 0) {
+                throw conflict(game);
+            }
         } catch (SQLException e) {
             throw new DataAccessException("failed to add user because " + e.toString());
-        } catch (IOException e) {
-            throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Appends the latest move to the game's move log, one small insert no matter how
+     * long the game is, after bumping the game's version. Every
+     * {@link #SNAPSHOT_INTERVAL} moves, and when the game ends, the whole game is
+     * written back as a snapshot in the same transaction.
+     */
+    @Override
+    public void recordMove(GameData game) {
+        var history = game.game().getHistory();
+        if (history.isEmpty()) {
+            throw new DataAccessException("game " + game.gameID() + " has no move to record");
+        }
+        var seq = history.size();
+        try (var conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            PreparedStatement preparedStatement;
+            if (seq % SNAPSHOT_INTERVAL == 0 || game.game().isOver()) {
+                preparedStatement = conn.prepareStatement(
+                        "UPDATE gameData SET game=?, snapshotSeq=?, isOver=?, version=version+1 WHERE gameID=? AND version=?");
+                preparedStatement.setBytes(1, ChessGameCodec.encode(game.game()));
+                preparedStatement.setInt(2, seq);
+                preparedStatement.setBoolean(3, game.game().isOver());
+                preparedStatement.setInt(4, game.gameID());
+                preparedStatement.setInt(5, game.version());
+            } else {
+                preparedStatement = conn.prepareStatement("UPDATE gameData SET version=version+1 WHERE gameID=? AND version=?");
+                preparedStatement.setInt(1, game.gameID());
+                preparedStatement.setInt(2, game.version());
+            }
+            // The row stays locked until commit, so no one else can log a move in between
+            if (preparedStatement.executeUpdate() == 0) {
+                throw conflict(game);
+            }
+            preparedStatement = conn.prepareStatement("INSERT INTO gameMoves (gameID, seq, move) VALUES (?, ?, ?)");
+            preparedStatement.setInt(1, game.gameID());
+            preparedStatement.setInt(2, seq);
+            preparedStatement.setInt(3, history.get(seq - 1));
+            preparedStatement.executeUpdate();
+            conn.commit();
+        } catch (SQLException e) {
+            throw new DataAccessException("failed to record move because " + e.toString());
+        }
+    }
+
+    private static GameConflictException conflict(GameData game) {
+        return new GameConflictException("game " + game.gameID() + " is no longer at version " + game.version());
+    }
+
+    /**
+     * Plays a logged move on a game loaded from an older snapshot
+     */
+    private static void replay(ChessGame game, int move) {
+        try {
+            game.makeMove(Move.toChessMove(move));
+        } catch (InvalidMoveException e) {
+            throw new DataAccessException("logged move " + Move.toString(move) + " does not fit its game", e);
+        }
+    }
+
+    /**
+     * Reads a stored game. Games are written with {@link ChessGameCodec}, but rows
+     * saved before it existed hold Java-serialized games, which start with the
+     * serialization stream magic 0xACED. Their classes have changed since, so those
+     * are rebuilt from their position by {@link LegacyGameReader} and rewritten in
+     * the compact form the next time the game is updated.
+     */
+    private static ChessGame readGame(byte[] bytes) {
+        if (ChessGameCodec.isEncoded(bytes)) {
+            return ChessGameCodec.decode(bytes);
+        }
+        if (LegacyGameReader.isLegacy(bytes)) {
+            try {
+                return LegacyGameReader.read(bytes);
+            } catch (IllegalArgumentException e) {
+                throw new DataAccessException("failed to read legacy game because " + e.toString(), e);
+            }
+        }
+        throw new DataAccessException("stored game is in an unknown format");
+    }
+
     @Override
     public void createAuth(AuthData authData) {
         try (var conn = DatabaseManager.getConnection()) {
@@ -2,5 +2,21 @@ package datamodel;
 
 import chess.ChessGame;
 
-public record GameData(int gameID, String whiteUsername, String blackUsername, String gameName, ChessGame game) {
+/**
+ * @param version how many times the stored game has been changed, so a change made
+ *                from an out of date copy can be detected and refused
+ */
+public record GameData(int gameID, String whiteUsername, String blackUsername, String gameName, ChessGame game,
+                       int version) {
+
+    public GameData(int gameID, String whiteUsername, String blackUsername, String gameName, ChessGame game) {
+        this(gameID, whiteUsername, blackUsername, gameName, game, 0);
+    }
+
+    /**
+     * @return this game as it is stored once a change made from it is saved
+     */
+    public GameData nextVersion() {
+        return new GameData(gameID, whiteUsername, blackUsername, gameName, game, version + 1);
+    }
 }
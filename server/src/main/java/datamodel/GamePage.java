@@ -0,0 +1,11 @@
+package datamodel;
+
+import java.util.List;
+
+/**
+ * One page of a game listing
+ *
+ * @param nextCursor the afterGameID that fetches the next page, or null on the last page
+ */
+public record GamePage(List<GameSummary> games, Integer nextCursor) {
+}
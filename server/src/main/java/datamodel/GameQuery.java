@@ -0,0 +1,39 @@
+package datamodel;
+
+/**
+ * Which games to list and how many at a time. Games come back in gameID order.
+ *
+ * @param afterGameID  only games with a greater ID, so the last ID of one page is
+ *                     the cursor for the next
+ * @param limit        the most games to return, or {@link #NO_LIMIT}
+ * @param openSeatOnly only games with a seat still free
+ * @param player       only games this user is playing in, or null for anyone
+ * @param finished     only finished games when true, only ones in progress when
+ *                     false, or either when null
+ */
+public record GameQuery(int afterGameID, int limit, boolean openSeatOnly, String player, Boolean finished) {
+
+    public static final int NO_LIMIT = Integer.MAX_VALUE;
+
+    public static final GameQuery ALL = new GameQuery(0, NO_LIMIT, false, null, null);
+
+    public GameQuery {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+    }
+
+    /**
+     * @return the same query but asking for one more game, to tell whether another page follows
+     */
+    public GameQuery withOneMore() {
+        return new GameQuery(afterGameID, limit == NO_LIMIT ? NO_LIMIT : limit + 1, openSeatOnly, player, finished);
+    }
+
+    public boolean matches(GameData game) {
+        return game.gameID() > afterGameID
+                && (!openSeatOnly || game.whiteUsername() == null || game.blackUsername() == null)
+                && (player == null || player.equals(game.whiteUsername()) || player.equals(game.blackUsername()))
+                && (finished == null || finished == game.game().isOver());
+    }
+}
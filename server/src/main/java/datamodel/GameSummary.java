@@ -0,0 +1,7 @@
+package datamodel;
+
+/**
+ * The parts of a game shown when listing games, without the board
+ */
+public record GameSummary(int gameID, String whiteUsername, String blackUsername, String gameName) {
+}
@@ -1,11 +1,13 @@
 package server;
 
 import com.google.gson.Gson;
+import dataaccess.CachingDataAccess;
 import dataaccess.DataAccess;
 import dataaccess.DataAccessException;
 import dataaccess.MySQLDataAccess;
 import datamodel.AuthData;
 import datamodel.GameData;
+import datamodel.GameQuery;
 import datamodel.JoinGameRequest;
 import datamodel.UserData;
 import io.javalin.*;
@@ -19,12 +21,21 @@ public class ChessServer {
 
     private final Javalin server;
     //    private final DataAccess dataAccess = new MemoryDataAccess();
-    private final DataAccess dataAccess = new MySQLDataAccess();
+    private final DataAccess dataAccess = new CachingDataAccess(new MySQLDataAccess(), GAME_CACHE_SIZE,
+            GAME_CACHE_IDLE_MILLIS, AUTH_CACHE_SIZE, AUTH_CACHE_TTL_MILLIS);
     private final UserService userService = new UserService(dataAccess);
     private final GameService gameService = new GameService(dataAccess);
     private final WebSocketHandler wsHandler = new WebSocketHandler(gameService);
 
     private final static String ERROR_RESPONSE = "{ \"message\": \"Error: bad request\" }";
+    private final static int MAX_PAGE_SIZE = 100;
+    // Enough for every game being played at once; one left alone for half an hour is reloaded if resumed
+    private final static int GAME_CACHE_SIZE = 1_000;
+    private final static long GAME_CACHE_IDLE_MILLIS = 30 * 60 * 1_000;
+    // Every token is checked against the database again five minutes after it was
+    // cached, so a logout on another server takes effect here within that time
+    private final static int AUTH_CACHE_SIZE = 10_000;
+    private final static long AUTH_CACHE_TTL_MILLIS = 5 * 60 * 1_000;
 
     public ChessServer() {
         server = Javalin.create(config -> config.staticFiles.add("web"));
@@ -192,16 +203,8 @@ public class ChessServer {
             ctx.status(400);
         } else {
             try {
-                var collectionOfGames = gameService.listGames(authToken);
-                response += "{\"games\":[";
-                var serializedGameInfo = new ArrayList<String>();
-                for (var game : collectionOfGames) {
-                    serializedGameInfo.add("{\"gameID\":" + Integer.toString(game.gameID()) + ", \"whiteUsername\":" +
-                            (game.whiteUsername() != null ? ("\"" + game.whiteUsername() + "\"") : null) + ", \"blackUsername\":" +
-                            (game.blackUsername() != null ? ("\"" + game.blackUsername() + "\"") : null) +
-                            ", \"gameName\":\"" + game.gameName() + "\"}");
-                }
-                response += String.join(",", serializedGameInfo) + "]}";
+                var page = gameService.listGames(authToken, parseGameQuery(ctx));
+                response = serializer.toJson(page);
 
             } catch (UnauthorizedException e) {
                 response = "{ \"message\": \"Error: unauthorized\" }";
@@ -218,6 +221,29 @@ public class ChessServer {
         ctx.result(response);
     }
 
+    /**
+     * Reads the optional listing parameters: cursor (list games after this ID),
+     * limit (page size, at most {@link #MAX_PAGE_SIZE}), open=true (only games with a
+     * free seat), player (only this user's games) and status=finished or active.
+     * With no limit every matching game comes back in one page.
+     */
+    private static GameQuery parseGameQuery(Context ctx) {
+        var cursor = ctx.queryParam("cursor");
+        var limit = ctx.queryParam("limit");
+        var status = ctx.queryParam("status");
+        Boolean finished = null;
+        if (status != null) {
+            finished = switch (status) {
+                case "finished" -> true;
+                case "active" -> false;
+                default -> throw new IllegalArgumentException("Unknown game status " + status);
+            };
+        }
+        return new GameQuery(cursor == null ? 0 : Integer.parseInt(cursor),
+                limit == null ? GameQuery.NO_LIMIT : Math.min(Integer.parseInt(limit), MAX_PAGE_SIZE),
+                "true".equals(ctx.queryParam("open")), ctx.queryParam("player"), finished);
+    }
+
     public int run(int desiredPort) {
         server.start(desiredPort);
         return server.port();
@@ -1,31 +1,99 @@
 package server.websocket;
 
 import com.google.gson.Gson;
+import datamodel.GameData;
 import org.eclipse.jetty.websocket.api.Session;
 import websocket.messages.ServerMessage;
 
 import java.io.IOException;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * The sessions connected to one game
+ */
 public class ConnectionManager {
+    // Gson is thread-safe, so every message shares one instead of building its own
+    static final Gson SERIALIZER = new Gson();
+
     public final ConcurrentHashMap<Session, Session> connections = new ConcurrentHashMap<>();
+    // Sessions that get a MOVE after each move rather than a full LOAD_GAME
+    private final Set<Session> moveUpdateSessions = ConcurrentHashMap.newKeySet();
+
+    // The last LOAD_GAME sent for this game and the game version it shows
+    private int loadGameVersion = -1;
+    private String loadGameFrame;
 
     public void add(Session session) {
         connections.put(session, session);
     }
 
+    public void add(Session session, boolean moveUpdates) {
+        if (moveUpdates) {
+            moveUpdateSessions.add(session);
+        }
+        add(session);
+    }
+
     public void remove(Session session) {
         connections.remove(session);
+        moveUpdateSessions.remove(session);
     }
 
     public void broadcast(Session excludeSession, ServerMessage message) throws IOException {
-        var msg = new Gson().toJson(message);
+        broadcast(excludeSession, SERIALIZER.toJson(message));
+    }
+
+    /**
+     * Sends an already serialized message to every open session except one
+     */
+    public void broadcast(Session excludeSession, String frame) throws IOException {
         for (Session c : connections.values()) {
             if (c.isOpen()) {
                 if (!c.equals(excludeSession)) {
-                    c.getRemote().sendString(msg);
+                    c.getRemote().sendString(frame);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tells every session about a move just played: a MOVE to the sessions that asked
+     * for them and the whole game to the rest. Each message is serialized at most once.
+     */
+    public void broadcastMove(GameData gameData) throws IOException {
+        String moveFrame = null;
+        String gameFrame = null;
+        for (Session c : connections.values()) {
+            if (c.isOpen()) {
+                if (moveUpdateSessions.contains(c)) {
+                    if (moveFrame == null) {
+                        moveFrame = SERIALIZER.toJson(ServerMessage.move(gameData.game()));
+                    }
+                    c.getRemote().sendString(moveFrame);
+                } else {
+                    if (gameFrame == null) {
+                        gameFrame = loadGameFrame(gameData);
+                    }
+                    c.getRemote().sendString(gameFrame);
                 }
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * @return the serialized LOAD_GAME message for a game, reusing the last one
+     * built when the game has not changed since
+     */
+    public synchronized String loadGameFrame(GameData gameData) {
+        if (loadGameFrame == null || gameData.version() != loadGameVersion) {
+            // Never go back to an older version a slower request is still holding
+            if (loadGameFrame != null && gameData.version() < loadGameVersion) {
+                return SERIALIZER.toJson(new ServerMessage(ServerMessage.ServerMessageType.LOAD_GAME, gameData.game()));
+            }
+            loadGameFrame = SERIALIZER.toJson(new ServerMessage(ServerMessage.ServerMessageType.LOAD_GAME, gameData.game()));
+            loadGameVersion = gameData.version();
+        }
+        return loadGameFrame;
+    }
+}
@@ -3,7 +3,6 @@ package server.websocket;
 import chess.ChessGame;
 import chess.ChessMove;
 import chess.ChessPosition;
-import com.google.gson.Gson;
 import io.javalin.websocket.*;
 import org.jetbrains.annotations.NotNull;
 import service.GameService;
@@ -26,7 +25,7 @@ public class WebSocketHandler implements WsConnectHandler, WsMessageHandler, WsC
     }
 
     private UserGameCommand deserializeCommand(String message) {
-        return new Gson().fromJson(message, UserGameCommand.class);
+        return ConnectionManager.SERIALIZER.fromJson(message, UserGameCommand.class);
     }
 
     @Override
@@ -57,9 +56,12 @@ public class WebSocketHandler implements WsConnectHandler, WsMessageHandler, WsC
                 case LEAVE:
                     leave(ctx, command);
                     break;
+                case SYNC:
+                    sync(ctx, command);
+                    break;
             }
         } catch (Exception e) {
-            ctx.session.getRemote().sendString(new Gson().toJson(new ErrorServerMessage(e.toString())));
+            ctx.session.getRemote().sendString(ConnectionManager.SERIALIZER.toJson(new ErrorServerMessage(e.toString())));
             System.out.println("Error: " + e.toString());
         }
     }
@@ -67,14 +69,10 @@ public class WebSocketHandler implements WsConnectHandler, WsMessageHandler, WsC
     private void connect(WsMessageContext ctx, UserGameCommand command) throws IOException {
         var username = gameService.getUsername(command.getAuthToken());
         var gameData = gameService.getGame(command.getAuthToken(), command.getGameID());
-        ctx.session.getRemote().sendString(new Gson().toJson(new ServerMessage(
-                ServerMessage.ServerMessageType.LOAD_GAME, gameData.game())));
-        if (!connections.containsKey(command.getGameID())) {
-            connections.put(command.getGameID(), new ConnectionManager());
-        }
-        var currentConnection = connections.get(command.getGameID());
+        var currentConnection = connections.computeIfAbsent(command.getGameID(), gameID -> new ConnectionManager());
+        ctx.session.getRemote().sendString(currentConnection.loadGameFrame(gameData));
         currentConnection.broadcast(ctx.session, new ServerMessage(ServerMessage.ServerMessageType.NOTIFICATION, username + " connected to the game with " + gameData.whiteUsername() + " as white  and " + gameData.blackUsername() + " as black."));
-        currentConnection.add(ctx.session);
+        currentConnection.add(ctx.session, command.wantsMoveUpdates());
     }
 
     private void makeMove(WsMessageContext ctx, UserGameCommand command) throws Exception {
@@ -82,7 +80,7 @@ public class WebSocketHandler implements WsConnectHandler, WsMessageHandler, WsC
         var currentConnection = connections.get(command.getGameID());
         var username = gameData.game().isWhitesTurn() ? gameData.blackUsername() : gameData.whiteUsername();
 
-        currentConnection.broadcast(null, new ServerMessage(ServerMessage.ServerMessageType.LOAD_GAME, gameData.game()));
+        currentConnection.broadcastMove(gameData);
         Map<Integer, String> coordMap = Map.of(1, "A", 2, "B",
                 3, "C",
                 4, "D",
@@ -101,11 +99,22 @@ public class WebSocketHandler implements WsConnectHandler, WsMessageHandler, WsC
             } else if (gameData.game().getWinner() == ChessGame.TeamColor.WHITE) {
                 currentConnection.broadcast(null, new ServerMessage(ServerMessage.ServerMessageType.NOTIFICATION, "The game is over. " + gameData.whiteUsername() + " is the winner!"));
             } else {
-                currentConnection.broadcast(null, new ServerMessage(ServerMessage.ServerMessageType.NOTIFICATION, "The game is over. The game ended in a stalemate. "));
+                var reason = switch (gameData.game().getStatus()) {
+                    case THREEFOLD_REPETITION -> "The game ended in a draw by threefold repetition. ";
+                    case FIFTY_MOVE_RULE -> "The game ended in a draw by the fifty-move rule. ";
+                    default -> "The game ended in a stalemate. ";
+                };
+                currentConnection.broadcast(null, new ServerMessage(ServerMessage.ServerMessageType.NOTIFICATION, "The game is over. " + reason));
             }
         }
     }
 
+    private void sync(WsMessageContext ctx, UserGameCommand command) throws IOException {
+        var gameData = gameService.getGame(command.getAuthToken(), command.getGameID());
+        var currentConnection = connections.computeIfAbsent(command.getGameID(), gameID -> new ConnectionManager());
+        ctx.session.getRemote().sendString(currentConnection.loadGameFrame(gameData));
+    }
+
     private void resign(WsMessageContext ctx, UserGameCommand command) throws Exception {
         var gameData = gameService.resign(command.getAuthToken(), command.getGameID());
         var currentConnection = connections.get(command.getGameID());
@@ -4,19 +4,67 @@ import chess.ChessGame;
 import chess.ChessMove;
 import chess.ChessPosition;
 import dataaccess.DataAccess;
+import dataaccess.GameConflictException;
 import datamodel.GameData;
+import datamodel.GamePage;
+import datamodel.GameQuery;
+import datamodel.GameSummary;
 
 import java.util.Collection;
 import java.util.Objects;
+import java.util.function.Consumer;
 
 public class GameService {
 
+    // How many times a change is tried against a fresh copy of the game before giving up
+    private static final int MAX_ATTEMPTS = 5;
+
     private final DataAccess dataAccess;
-    private int gameIDCounter;
+
+    /**
+     * Works out a changed game from the current one. Must not modify the game it is
+     * given, which may be shared with other readers.
+     */
+    private interface GameChange<E extends Exception> {
+        GameData apply(GameData current) throws E;
+    }
 
     public GameService(DataAccess dataAccess) {
         this.dataAccess = dataAccess;
-        gameIDCounter = 0;
+    }
+
+    /**
+     * Reads a game, applies a change and saves it only if no one else changed the game
+     * in the meantime, starting over from a fresh read when someone did. Changes to
+     * one game are applied strictly one after another without holding a lock, even
+     * across servers sharing a database.
+     * <p>
+     * Each conflict means another change to the game was saved, so giving up after
+     * {@link #MAX_ATTEMPTS} only happens when the game is that busy. The conflict is
+     * then passed on to the caller rather than retried further, and the client sees
+     * it as a failed request: a 500 over HTTP or an ERROR message over the WebSocket.
+     * Trying again from the client is safe, since nothing was saved.
+     *
+     * @return the game as saved
+     * @throws GameConflictException if the game was changed by someone else before
+     *                               every one of the attempts could be saved
+     */
+    private <E extends Exception> GameData update(int gameID, GameChange<E> change, Consumer<GameData> save) throws E {
+        for (var attempt = 1; ; attempt++) {
+            var current = dataAccess.getGame(gameID);
+            if (current == null) {
+                throw new RuntimeException("Not a valid game ID");
+            }
+            var changed = change.apply(current);
+            try {
+                save.accept(changed);
+                return changed.nextVersion();
+            } catch (GameConflictException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
     }
 
     public String getUsername(String authToken) {
@@ -32,8 +80,7 @@ public class GameService {
         if (auth == null) {
             throw new UnauthorizedException("Not a recognized auth token");
         }
-        gameIDCounter++;
-        var newGame = new GameData(gameIDCounter, null, null, gameName, new ChessGame());
+        var newGame = new GameData(dataAccess.allocateGameID(), null, null, gameName, new ChessGame());
         dataAccess.createGame(newGame);
         return newGame;
     }
@@ -43,26 +90,24 @@ public class GameService {
         if (auth == null) {
             throw new UnauthorizedException("Not a recognized auth token");
         }
-        var game = dataAccess.getGame(gameID);
-        if (game == null) {
-            throw new RuntimeException("Not a valid game ID");
-        }
-        var whiteUsername = game.whiteUsername();
-        var blackUsername = game.blackUsername();
-        if (playerColor.equals("WHITE")) {
-            if (whiteUsername != null) {
-                throw new ColorAlreadyTakenException("White is already taken in this game");
+        update(gameID, game -> {
+            var whiteUsername = game.whiteUsername();
+            var blackUsername = game.blackUsername();
+            if (playerColor.equals("WHITE")) {
+                if (whiteUsername != null) {
+                    throw new ColorAlreadyTakenException("White is already taken in this game");
+                } else {
+                    whiteUsername = auth.username();
+                }
             } else {
-                whiteUsername = auth.username();
+                if (blackUsername != null) {
+                    throw new ColorAlreadyTakenException("Black is already taken in this game");
+                } else {
+                    blackUsername = auth.username();
+                }
             }
-        } else {
-            if (blackUsername != null) {
-                throw new ColorAlreadyTakenException("Black is already taken in this game");
-            } else {
-                blackUsername = auth.username();
-            }
-        }
-        dataAccess.updateGame(new GameData(gameID, whiteUsername, blackUsername, game.gameName(), game.game()));
+            return new GameData(gameID, whiteUsername, blackUsername, game.gameName(), game.game(), game.version());
+        }, dataAccess::updateGame);
     }
 
     public String leaveGame(String authToken, int gameID) throws Exception {
@@ -70,29 +115,43 @@ public class GameService {
         if (auth == null) {
             throw new UnauthorizedException("Not a recognized auth token");
         }
-        var gameData = dataAccess.getGame(gameID);
-        if (gameData == null) {
-            throw new RuntimeException("Not a valid game ID");
-        }
         String usernameOfTheQuitter = auth.username();
-        var whiteUsername = gameData.whiteUsername();
-        var blackUsername = gameData.blackUsername();
-        if (Objects.equals(gameData.whiteUsername(), auth.username())) {
-            whiteUsername = null;
-        } else if (Objects.equals(gameData.blackUsername(), auth.username())) {
-            blackUsername = null;
-        }
-        var updatedGame = new GameData(gameID, whiteUsername, blackUsername, gameData.gameName(), gameData.game());
-        dataAccess.updateGame(updatedGame);
+        update(gameID, gameData -> {
+            var whiteUsername = gameData.whiteUsername();
+            var blackUsername = gameData.blackUsername();
+            if (Objects.equals(gameData.whiteUsername(), auth.username())) {
+                whiteUsername = null;
+            } else if (Objects.equals(gameData.blackUsername(), auth.username())) {
+                blackUsername = null;
+            }
+            return new GameData(gameID, whiteUsername, blackUsername, gameData.gameName(), gameData.game(), gameData.version());
+        }, dataAccess::updateGame);
         return usernameOfTheQuitter;
     }
 
-    public Collection<GameData> listGames(String authToken) {
+    public Collection<GameSummary> listGames(String authToken) {
         var auth = dataAccess.getAuth(authToken);
         if (auth == null) {
             throw new UnauthorizedException("Not a recognized auth token");
         }
-        return dataAccess.listGames();
+        return dataAccess.listGameSummaries();
+    }
+
+    /**
+     * Lists one page of the games a query picks out, along with the cursor for the
+     * page after it
+     */
+    public GamePage listGames(String authToken, GameQuery query) {
+        var auth = dataAccess.getAuth(authToken);
+        if (auth == null) {
+            throw new UnauthorizedException("Not a recognized auth token");
+        }
+        var games = dataAccess.listGameSummaries(query.withOneMore());
+        if (games.size() <= query.limit()) {
+            return new GamePage(games, null);
+        }
+        games = games.subList(0, query.limit());
+        return new GamePage(games, games.get(games.size() - 1).gameID());
     }
 
     public GameData getGame(String authToken, int gameID) {
@@ -112,26 +171,22 @@ public class GameService {
         if (auth == null) {
             throw new UnauthorizedException("Not a recognized auth token");
         }
-        var gameData = dataAccess.getGame(gameID);
-        if (gameData == null) {
-            throw new RuntimeException("Not a valid game ID");
-        }
-        if ((Objects.equals(gameData.whiteUsername(), auth.username()) && gameData.game().isWhitesTurn()) ||
-                (Objects.equals(gameData.blackUsername(), auth.username()) && !gameData.game().isWhitesTurn())) {
-            var moved = gameData.game();
-            if (moved.isOver()) {
-                throw new Exception("This game has already finished, no more moves can be made");
+        return update(gameID, gameData -> {
+            if ((Objects.equals(gameData.whiteUsername(), auth.username()) && gameData.game().isWhitesTurn()) ||
+                    (Objects.equals(gameData.blackUsername(), auth.username()) && !gameData.game().isWhitesTurn())) {
+                if (gameData.game().isOver()) {
+                    throw new Exception("This game has already finished, no more moves can be made");
+                }
+                var moved = gameData.game().copy();
+                moved.makeMove(move);
+//                moved.isInCheckmate(ChessGame.TeamColor.WHITE);
+//                moved.isInCheckmate(ChessGame.TeamColor.BLACK);
+                return new GameData(gameID, gameData.whiteUsername(), gameData.blackUsername(), gameData.gameName(), moved,
+                        gameData.version());
+            } else {
+                throw new Exception("You can't move the opponents pieces");
             }
-            moved.makeMove(move);
-//            moved.isInCheckmate(ChessGame.TeamColor.WHITE);
-//            moved.isInCheckmate(ChessGame.TeamColor.BLACK);
-            var updatedGame = new GameData(gameID, gameData.whiteUsername(), gameData.blackUsername(), gameData.gameName(), moved);
-            dataAccess.updateGame(updatedGame);
-            return updatedGame;
-        } else {
-            throw new Exception("You can't move the opponents pieces");
-        }
-
+        }, dataAccess::recordMove);
     }
 
 
@@ -140,23 +195,20 @@ public class GameService {
         if (auth == null) {
             throw new UnauthorizedException("Not a recognized auth token");
         }
-        var gameData = dataAccess.getGame(gameID);
-        if (gameData == null) {
-            throw new RuntimeException("Not a valid game ID");
-        }
-        var game = gameData.game();
-        if (game.isOver()) {
-            throw new Exception("This game has already finished, you can't resign");
-        }
-        if (gameData.whiteUsername().equals(auth.username())) {
-            game.resign(ChessGame.TeamColor.WHITE);
-        } else if (gameData.blackUsername().equals(auth.username())) {
-            game.resign(ChessGame.TeamColor.BLACK);
-        } else {
-            throw new Exception("umm observers cant resign");
-        }
-        var updatedGame = new GameData(gameID, gameData.whiteUsername(), gameData.blackUsername(), gameData.gameName(), game);
-        dataAccess.updateGame(updatedGame);
-        return updatedGame;
+        return update(gameID, gameData -> {
+            if (gameData.game().isOver()) {
+                throw new Exception("This game has already finished, you can't resign");
+            }
+            var game = gameData.game().copy();
+            if (gameData.whiteUsername().equals(auth.username())) {
+                game.resign(ChessGame.TeamColor.WHITE);
+            } else if (gameData.blackUsername().equals(auth.username())) {
+                game.resign(ChessGame.TeamColor.BLACK);
+            } else {
+                throw new Exception("umm observers cant resign");
+            }
+            return new GameData(gameID, gameData.whiteUsername(), gameData.blackUsername(), gameData.gameName(), game,
+                    gameData.version());
+        }, dataAccess::updateGame);
     }
 }
@@ -0,0 +1,120 @@
+package dataaccess;
+
+import chess.ChessGame;
+import datamodel.AuthData;
+import datamodel.GameData;
+import org.junit.jupiter.api.Test;
+import service.UnauthorizedException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingDataAccessTest {
+
+    private final MemoryDataAccess memory = new MemoryDataAccess();
+    private final CachingDataAccess dataAccess = new CachingDataAccess(memory, 10, 60_000, 10, 60_000);
+
+    @Test
+    void readsGameOnceWhileCached() {
+        memory.createGame(new GameData(1, "w", "b", "game", new ChessGame()));
+        var first = dataAccess.getGame(1);
+        assertSame(first, dataAccess.getGame(1));
+        assertEquals(1, dataAccess.gameCache().misses());
+        assertEquals(1, dataAccess.gameCache().hits());
+    }
+
+    @Test
+    void writesGoThrough() {
+        dataAccess.createGame(new GameData(1, null, null, "game", new ChessGame()));
+        var joined = new GameData(1, "w", null, "game", new ChessGame());
+        dataAccess.updateGame(joined);
+        assertEquals(joined.nextVersion(), memory.getGame(1));
+        assertEquals(joined.nextVersion(), dataAccess.getGame(1));
+        assertEquals(0, dataAccess.gameCache().misses());
+    }
+
+    @Test
+    void conflictDropsCachedGame() {
+        dataAccess.createGame(new GameData(1, null, null, "game", new ChessGame()));
+        memory.updateGame(new GameData(1, "elsewhere", null, "game", new ChessGame()));
+        assertThrows(GameConflictException.class,
+                () -> dataAccess.updateGame(new GameData(1, "w", null, "game", new ChessGame())));
+        assertEquals("elsewhere", dataAccess.getGame(1).whiteUsername());
+    }
+
+    @Test
+    void failedWriteDropsCachedGame() {
+        var failing = new CachingDataAccess(new MemoryDataAccess() {
+            @Override
+            public void recordMove(GameData game) {
+                throw new DataAccessException("database is down");
+            }
+        }, 10, 60_000, 10, 60_000);
+        failing.createGame(new GameData(1, "w", "b", "game", new ChessGame()));
+        assertThrows(DataAccessException.class, () -> failing.recordMove(failing.getGame(1)));
+        assertEquals(0, failing.gameCache().size());
+    }
+
+    @Test
+    void readsAuthOnceWhileCached() {
+        memory.createAuth(new AuthData("token", "user"));
+        assertEquals("user", dataAccess.getAuth("token").username());
+        assertEquals("user", dataAccess.getAuth("token").username());
+        assertEquals(1, dataAccess.authCache().misses());
+        assertEquals(1, dataAccess.authCache().hits());
+    }
+
+    @Test
+    void deletedAuthIsNotServedFromCache() {
+        dataAccess.createAuth(new AuthData("token", "user"));
+        assertNotNull(dataAccess.getAuth("token"));
+        dataAccess.deleteAuth("token");
+        assertEquals(0, dataAccess.authCache().size());
+        assertThrows(UnauthorizedException.class, () -> dataAccess.getAuth("token"));
+    }
+
+    @Test
+    void deleteDuringLoadIsNotUndone() throws Exception {
+        var loaded = new CountDownLatch(1);
+        var deleted = new CountDownLatch(1);
+        var slow = new CachingDataAccess(new MemoryDataAccess() {
+            @Override
+            public AuthData getAuth(String authToken) {
+                var auth = super.getAuth(authToken);
+                // Let the delete run between reading the token and caching it
+                loaded.countDown();
+                try {
+                    deleted.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return auth;
+            }
+        }, 10, 60_000, 10, 60_000);
+        slow.createAuth(new AuthData("token", "user"));
+        slow.authCache().clear();
+
+        var reader = Executors.newSingleThreadExecutor();
+        try {
+            var read = reader.submit(() -> slow.getAuth("token"));
+            assertTrue(loaded.await(5, TimeUnit.SECONDS));
+            slow.deleteAuth("token");
+            deleted.countDown();
+            assertEquals("user", read.get(5, TimeUnit.SECONDS).username());
+        } finally {
+            reader.shutdownNow();
+        }
+        assertEquals(0, slow.authCache().size());
+        assertThrows(UnauthorizedException.class, () -> slow.getAuth("token"));
+    }
+
+    @Test
+    void clearEmptiesCache() {
+        dataAccess.createGame(new GameData(1, "w", "b", "game", new ChessGame()));
+        dataAccess.clear();
+        assertThrows(DataAccessException.class, () -> dataAccess.getGame(1));
+    }
+}
@@ -0,0 +1,140 @@
+package dataaccess;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolTest {
+
+    private final List<FakeConnection> opened = new ArrayList<>();
+    private ConnectionPool pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    void reusesReturnedConnection() throws SQLException {
+        pool = newPool(2, 60_000);
+        try (var conn = pool.getConnection()) {
+            assertFalse(conn.isClosed());
+        }
+        try (var conn = pool.getConnection()) {
+            assertFalse(conn.isClosed());
+        }
+        assertEquals(1, opened.size());
+        assertEquals(1, pool.idleCount());
+    }
+
+    @Test
+    void closedLeaseCannotBeUsed() throws SQLException {
+        pool = newPool(1, 60_000);
+        var conn = pool.getConnection();
+        conn.close();
+        assertTrue(conn.isClosed());
+        assertThrows(SQLException.class, () -> conn.prepareStatement("SELECT 1"));
+        assertFalse(opened.get(0).closed);
+    }
+
+    @Test
+    void waitsThenTimesOutWhenExhausted() throws SQLException {
+        pool = newPool(1, 60_000);
+        try (var ignored = pool.getConnection()) {
+            assertThrows(SQLException.class, () -> pool.getConnection());
+        }
+        try (var conn = pool.getConnection()) {
+            assertNotNull(conn);
+        }
+    }
+
+    @Test
+    void closesStatementsLeftOpen() throws SQLException {
+        pool = newPool(1, 60_000);
+        PreparedStatement statement;
+        try (var conn = pool.getConnection()) {
+            statement = conn.prepareStatement("SELECT 1");
+            assertFalse(statement.isClosed());
+        }
+        assertTrue(statement.isClosed());
+    }
+
+    @Test
+    void evictsIdleConnections() throws SQLException, InterruptedException {
+        pool = newPool(1, 10);
+        pool.getConnection().close();
+        Thread.sleep(30);
+        pool.evictIdle();
+        assertEquals(0, pool.idleCount());
+        assertTrue(opened.get(0).closed);
+    }
+
+    @Test
+    void discardsConnectionThatFailsValidation() throws SQLException, InterruptedException {
+        pool = newPool(1, 60_000);
+        pool.getConnection().close();
+        opened.get(0).valid = false;
+        Thread.sleep(1_100);
+        try (var ignored = pool.getConnection()) {
+            assertEquals(2, opened.size());
+            assertTrue(opened.get(0).closed);
+        }
+    }
+
+    private ConnectionPool newPool(int size, long idleTimeoutMillis) {
+        return new ConnectionPool(this::open, size, idleTimeoutMillis, 50, 1);
+    }
+
+    private Connection open() {
+        var fake = new FakeConnection();
+        opened.add(fake);
+        return fake.proxy();
+    }
+
+    /**
+     * Just enough of a connection to hand out statements and report whether it is
+     * open and valid
+     */
+    private static class FakeConnection {
+        boolean closed;
+        boolean valid = true;
+
+        Connection proxy() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+                        case "close" -> {
+                            closed = true;
+                            yield null;
+                        }
+                        case "isClosed" -> closed;
+                        case "isValid" -> valid && !closed;
+                        case "getAutoCommit" -> true;
+                        case "prepareStatement" -> fakeStatement();
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+
+        private static PreparedStatement fakeStatement() {
+            var closed = new boolean[1];
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> switch (method.getName()) {
+                        case "close" -> {
+                            closed[0] = true;
+                            yield null;
+                        }
+                        case "isClosed" -> closed[0];
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package dataaccess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiringLruCacheTest {
+
+    private long now;
+    private final ExpiringLruCache<Integer, String> cache = new ExpiringLruCache<>(2, 10, true, () -> now);
+
+    @Test
+    void countsHitsAndMisses() {
+        assertNull(cache.get(1));
+        cache.put(1, "one");
+        assertEquals("one", cache.get(1));
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        cache.put(1, "one");
+        cache.put(2, "two");
+        cache.get(1);
+        cache.put(3, "three");
+        assertNull(cache.get(2));
+        assertEquals("one", cache.get(1));
+        assertEquals("three", cache.get(3));
+        assertEquals(1, cache.evictions());
+    }
+
+    @Test
+    void expiresIdleEntries() {
+        cache.put(1, "one");
+        now += 5_000_000;
+        cache.put(2, "two");
+        now += 6_000_000;
+        assertNull(cache.get(1));
+        assertEquals("two", cache.get(2));
+        now += 11_000_000;
+        cache.put(3, "three");
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void expiresFromPutWhenReadsDoNotRefresh() {
+        var fixed = new ExpiringLruCache<Integer, String>(2, 10, false, () -> now);
+        fixed.put(1, "one");
+        now += 6_000_000;
+        assertEquals("one", fixed.get(1));
+        now += 6_000_000;
+        assertNull(fixed.get(1));
+    }
+}
@@ -0,0 +1,100 @@
+package dataaccess;
+
+import chess.ChessGame;
+import datamodel.AuthData;
+import datamodel.GameData;
+import datamodel.UserData;
+import org.junit.jupiter.api.Test;
+import service.UnauthorizedException;
+import service.UserAlreadyRegisteredException;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryDataAccessTest {
+
+    private final DataAccess dataAccess = new MemoryDataAccess();
+
+    @Test
+    void getUser() {
+        dataAccess.createUser(new UserData("him", "123", "a@b.c"));
+        assertEquals("123", dataAccess.getUser("him").password());
+        assertNull(dataAccess.getUser("her"));
+    }
+
+    @Test
+    void getFakeGame() {
+        assertThrows(DataAccessException.class, () -> dataAccess.getGame(5));
+    }
+
+    @Test
+    void updateGame() {
+        dataAccess.createGame(new GameData(1, null, null, "game", new ChessGame()));
+        dataAccess.updateGame(new GameData(1, "w", null, "game", new ChessGame()));
+        assertEquals("w", dataAccess.getGame(1).whiteUsername());
+        assertEquals(1, dataAccess.listGames().size());
+    }
+
+    @Test
+    void deleteAuth() {
+        dataAccess.createAuth(new AuthData("token", "him"));
+        dataAccess.deleteAuth("token");
+        assertThrows(UnauthorizedException.class, () -> dataAccess.getAuth("token"));
+        assertThrows(UnauthorizedException.class, () -> dataAccess.deleteAuth("token"));
+    }
+
+    @Test
+    void concurrentWrites() throws Exception {
+        var executor = Executors.newFixedThreadPool(8);
+        var results = new ArrayList<Future<?>>();
+        for (var thread = 0; thread < 8; thread++) {
+            var first = thread * 100 + 1;
+            results.add(executor.submit(() -> {
+                for (var id = first; id < first + 100; id++) {
+                    dataAccess.createGame(new GameData(id, null, null, "game" + id, new ChessGame()));
+                    dataAccess.updateGame(new GameData(id, "w", null, "game" + id, new ChessGame()));
+                    dataAccess.createAuth(new AuthData("token" + id, "user" + id));
+                }
+            }));
+        }
+        for (var result : results) {
+            result.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(800, dataAccess.listGames().size());
+        assertEquals(800, dataAccess.listGameSummaries().size());
+        assertEquals("w", dataAccess.getGame(800).whiteUsername());
+        assertEquals("user1", dataAccess.getAuth("token1").username());
+    }
+
+    @Test
+    void concurrentRegistrationsKeepFirstUser() throws Exception {
+        var executor = Executors.newFixedThreadPool(8);
+        var results = new ArrayList<Future<String>>();
+        for (var thread = 0; thread < 8; thread++) {
+            var password = "password" + thread;
+            results.add(executor.submit(() -> {
+                try {
+                    dataAccess.createUser(new UserData("him", password, "a@b.c"));
+                    return password;
+                } catch (UserAlreadyRegisteredException e) {
+                    return null;
+                }
+            }));
+        }
+        var created = new ArrayList<String>();
+        for (var result : results) {
+            if (result.get() != null) {
+                created.add(result.get());
+            }
+        }
+        executor.shutdown();
+        assertEquals(1, created.size());
+        assertEquals(created.get(0), dataAccess.getUser("him").password());
+    }
+}
@@ -1,14 +1,19 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.Fen;
 import datamodel.AuthData;
 import datamodel.GameData;
+import datamodel.GameQuery;
+import datamodel.GameSummary;
 import datamodel.UserData;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -62,6 +67,13 @@ class MySQLDataAccessTest {
         });
     }
 
+    @Test
+    void allocateGameID() {
+        var first = dataAccess.allocateGameID();
+        var second = new MySQLDataAccess().allocateGameID();
+        assertTrue(second > first);
+    }
+
     @Test
     void createNullGame() {
         assertThrows(Exception.class, () -> {
@@ -77,6 +89,49 @@ class MySQLDataAccessTest {
         });
     }
 
+    @Test
+    void getLegacyGame() throws Exception {
+        // Written by the Java-serialized classes from before ChessGameCodec, and shared
+        // with the shared module's LegacyGameReaderTests through its test jar
+        byte[] legacy;
+        try (var in = getClass().getResourceAsStream("/chess/legacy-in-progress.ser")) {
+            assertNotNull(in);
+            legacy = in.readAllBytes();
+        }
+        try (var conn = DatabaseManager.getConnection()) {
+            var statement = conn.prepareStatement(
+                    "INSERT INTO gameData (gameID, whiteUsername, blackUsername, gameName, game) VALUES (1, 'w', 'b', 'old', ?)");
+            statement.setBytes(1, legacy);
+            statement.executeUpdate();
+        }
+        var expected = Fen.parse("rnbqkbr1/ppp1pppp/5n2/3pP3/8/8/PPPPKPPP/RNBQ1BNR w q d6 0 1");
+        var game = dataAccess.getGame(1);
+        assertEquals(expected, game.game());
+        assertEquals(1, dataAccess.listGames().size());
+
+        dataAccess.updateGame(game);
+        assertEquals(expected, dataAccess.getGame(1).game());
+    }
+
+    @Test
+    void backfillSkipsUnreadableGames() throws Exception {
+        var resigned = new ChessGame();
+        resigned.resign(ChessGame.TeamColor.WHITE);
+        dataAccess.createGame(new GameData(1, "w", "b", "resigned", resigned));
+        dataAccess.createGame(new GameData(2, "w", "b", "playing", new ChessGame()));
+        try (var conn = DatabaseManager.getConnection()) {
+            conn.prepareStatement("INSERT INTO gameData (gameID, gameName, game) VALUES (3, 'broken', X'0102')")
+                    .executeUpdate();
+            // Back to how the table looked before any of these columns were added
+            conn.prepareStatement("ALTER TABLE gameData DROP INDEX isOver, DROP COLUMN isOver, DROP COLUMN version, "
+                    + "DROP COLUMN snapshotSeq").executeUpdate();
+        }
+
+        assertDoesNotThrow(MySQLDataAccess::new);
+        var finished = dataAccess.listGameSummaries(new GameQuery(0, GameQuery.NO_LIMIT, false, null, true));
+        assertEquals(List.of(new GameSummary(1, "w", "b", "resigned")), finished);
+    }
+
     @Test
     void getFakeGame() {
         assertNull(dataAccess.getGame(5));
@@ -91,6 +146,36 @@ class MySQLDataAccessTest {
         });
     }
 
+    @Test
+    void listGameSummaries() {
+        dataAccess.createGame(new GameData(1, "w", null, "first", new ChessGame()));
+        dataAccess.createGame(new GameData(2, null, "b", "second", new ChessGame()));
+        var expected = new HashSet<GameSummary>();
+        expected.add(new GameSummary(1, "w", null, "first"));
+        expected.add(new GameSummary(2, null, "b", "second"));
+        assertEquals(expected, new HashSet<>(dataAccess.listGameSummaries()));
+    }
+
+    @Test
+    void listGameSummariesByQuery() {
+        dataAccess.createGame(new GameData(1, "w", "b", "full", new ChessGame()));
+        dataAccess.createGame(new GameData(2, "w", null, "open", new ChessGame()));
+        dataAccess.createGame(new GameData(3, null, null, "empty", new ChessGame()));
+        var resigned = new ChessGame();
+        resigned.resign(ChessGame.TeamColor.WHITE);
+        dataAccess.createGame(new GameData(4, "w", "b", "done", resigned));
+
+        var open = dataAccess.listGameSummaries(new GameQuery(0, GameQuery.NO_LIMIT, true, null, null));
+        assertEquals(2, open.size());
+        assertEquals(2, open.get(0).gameID());
+        var page = dataAccess.listGameSummaries(new GameQuery(1, 2, false, "w", null));
+        assertEquals(2, page.size());
+        assertEquals(4, page.get(1).gameID());
+        var finished = dataAccess.listGameSummaries(new GameQuery(0, 10, false, null, true));
+        assertEquals(1, finished.size());
+        assertEquals(4, finished.get(0).gameID());
+    }
+
     @Test
     void updateGame() {
         assertDoesNotThrow(() -> {
@@ -99,6 +184,17 @@ class MySQLDataAccessTest {
         });
     }
 
+    @Test
+    void updateStaleGame() {
+        dataAccess.createGame(new GameData(1, null, null, "game", new ChessGame()));
+        dataAccess.updateGame(new GameData(1, "w", null, "game", new ChessGame()));
+        assertEquals(1, dataAccess.getGame(1).version());
+        assertThrows(GameConflictException.class, () -> {
+            dataAccess.updateGame(new GameData(1, null, "b", "game", new ChessGame()));
+        });
+        assertEquals("w", dataAccess.getGame(1).whiteUsername());
+    }
+
     @Test
     void updateBadGame() {
         assertThrows(Exception.class, () -> {
@@ -106,6 +202,29 @@ class MySQLDataAccessTest {
         });
     }
 
+    @Test
+    void recordMove() {
+        dataAccess.createGame(new GameData(1, "w", "b", "game", new ChessGame()));
+        var game = new ChessGame();
+        for (var ply = 0; ply < 45 && !game.isOver(); ply++) {
+            var moves = new ArrayList<>(game.allValidMoves(game.getTeamTurn()));
+            assertDoesNotThrow(() -> game.makeMove(moves.get(game.getHistory().size() * 7 % moves.size())));
+            dataAccess.recordMove(new GameData(1, "w", "b", "game", game, ply));
+        }
+        var stored = dataAccess.getGame(1).game();
+        assertEquals(game, stored);
+        assertEquals(game.getHistory(), stored.getHistory());
+        assertEquals(game.getHistory(), dataAccess.listGames().iterator().next().game().getHistory());
+    }
+
+    @Test
+    void recordMoveWithoutMove() {
+        dataAccess.createGame(new GameData(1, "w", "b", "game", new ChessGame()));
+        assertThrows(DataAccessException.class, () -> {
+            dataAccess.recordMove(new GameData(1, "w", "b", "game", new ChessGame()));
+        });
+    }
+
     @Test
     void createAuth() {
         assertDoesNotThrow(() -> {
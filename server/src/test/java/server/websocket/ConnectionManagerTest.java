@@ -0,0 +1,59 @@
+package server.websocket;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import chess.Move;
+import datamodel.GameData;
+import org.junit.jupiter.api.Test;
+import websocket.messages.ServerMessage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionManagerTest {
+
+    private final ConnectionManager manager = new ConnectionManager();
+
+    @Test
+    void reusesFrameForSameVersion() {
+        var game = new GameData(1, "w", "b", "game", new ChessGame(), 3);
+        var frame = manager.loadGameFrame(game);
+        assertSame(frame, manager.loadGameFrame(game));
+        assertTrue(frame.contains("LOAD_GAME"));
+    }
+
+    @Test
+    void rebuildsFrameForNewVersion() throws InvalidMoveException {
+        var chessGame = new ChessGame();
+        var first = manager.loadGameFrame(new GameData(1, "w", "b", "game", chessGame, 0));
+        var moved = chessGame.copy();
+        moved.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        var second = manager.loadGameFrame(new GameData(1, "w", "b", "game", moved, 1));
+        assertNotEquals(first, second);
+        assertSame(second, manager.loadGameFrame(new GameData(1, "w", "b", "game", moved, 1)));
+        assertEquals(first, manager.loadGameFrame(new GameData(1, "w", "b", "game", chessGame, 0)));
+        assertSame(second, manager.loadGameFrame(new GameData(1, "w", "b", "game", moved, 1)));
+    }
+
+    @Test
+    void moveMessageReplaysOnClient() throws InvalidMoveException {
+        var server = new ChessGame();
+        server.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        var frame = ConnectionManager.SERIALIZER.toJson(ServerMessage.move(server));
+        assertTrue(frame.length() < 100, frame);
+
+        var message = ConnectionManager.SERIALIZER.fromJson(frame, ServerMessage.class);
+        assertEquals(ServerMessage.ServerMessageType.MOVE, message.getServerMessageType());
+        assertEquals(1, message.getSeq());
+        var client = new ChessGame();
+        client.makeMove(Move.toChessMove(message.getMove()));
+        assertEquals(server, client);
+        assertEquals(message.getStatus(), client.getStatus());
+    }
+
+    @Test
+    void moveMessageNeedsAMove() {
+        assertThrows(IllegalArgumentException.class, () -> ServerMessage.move(new ChessGame()));
+    }
+}
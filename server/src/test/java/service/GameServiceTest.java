@@ -1,15 +1,28 @@
 package service;
 
+import chess.ChessMove;
+import chess.ChessPosition;
 import dataaccess.DataAccess;
+import dataaccess.GameConflictException;
 import dataaccess.MemoryDataAccess;
 import datamodel.AuthData;
 import datamodel.GameData;
+import datamodel.GameQuery;
 import datamodel.UserData;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class ServiceTest {
@@ -63,6 +76,150 @@ class ServiceTest {
         });
     }
 
+    @Test
+    void concurrentJoinsTakeSeatOnce() throws Exception {
+        var game = gameService.createGame(auth.authToken(), "race");
+        var executor = Executors.newFixedThreadPool(8);
+        var joined = new AtomicInteger();
+        var results = new ArrayList<Future<?>>();
+        for (var i = 0; i < 8; i++) {
+            var player = userService.register(new UserData("racer" + i, "password", "r@r.r"));
+            results.add(executor.submit(() -> {
+                try {
+                    gameService.joinGame(player.authToken(), game.gameID(), "WHITE");
+                    joined.incrementAndGet();
+                } catch (ColorAlreadyTakenException e) {
+                    // Someone else sat down first
+                }
+            }));
+        }
+        for (var result : results) {
+            result.get();
+        }
+        executor.shutdown();
+        assertEquals(1, joined.get());
+    }
+
+    @Test
+    void concurrentMovesAndJoinsApplyOnce() throws Exception {
+        // 1. e4 e5 2. Nf3 Nc6 3. Bc4 Nf6 4. d3 Bc5
+        int[][] script = {{2, 5, 4, 5}, {7, 5, 5, 5}, {1, 7, 3, 6}, {8, 2, 6, 3},
+                {1, 6, 4, 3}, {8, 7, 6, 6}, {2, 4, 3, 4}, {8, 6, 5, 3}};
+        var game = gameService.createGame(auth.authToken(), "busy");
+        gameService.joinGame(auth.authToken(), game.gameID(), "WHITE");
+        var executor = Executors.newFixedThreadPool(12);
+        try {
+            // Players race for the black seat while white's first move is sent four times over
+            var black = new AtomicReference<AuthData>();
+            var moved = new AtomicInteger();
+            var start = new CountDownLatch(1);
+            var results = new ArrayList<Future<?>>();
+            for (var i = 0; i < 8; i++) {
+                var player = userService.register(new UserData("seat" + i, "password", "s@s.s"));
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        gameService.joinGame(player.authToken(), game.gameID(), "BLACK");
+                        assertTrue(black.compareAndSet(null, player));
+                    } catch (ColorAlreadyTakenException e) {
+                        // Someone else sat down first
+                    }
+                    return null;
+                }));
+            }
+            results.addAll(sendConcurrently(executor, auth, game.gameID(), script[0], moved, start));
+            start.countDown();
+            for (var result : results) {
+                result.get();
+            }
+            assertNotNull(black.get());
+            assertEquals(1, moved.get());
+
+            // Then every move of the game is sent four times at once by its player
+            for (var ply = 1; ply < script.length; ply++) {
+                var player = ply % 2 == 0 ? auth : black.get();
+                var go = new CountDownLatch(1);
+                var sent = sendConcurrently(executor, player, game.gameID(), script[ply], moved, go);
+                go.countDown();
+                for (var result : sent) {
+                    result.get();
+                }
+                assertEquals(ply + 1, moved.get(), "move " + (ply + 1) + " was not played exactly once");
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        var stored = dataAccess.getGame(game.gameID());
+        var played = stored.game().getHistory().toChessMoves(new ArrayList<>());
+        var expected = new ArrayList<ChessMove>();
+        for (var move : script) {
+            expected.add(move(move));
+        }
+        assertEquals(expected, played);
+        // Two seats taken and eight moves, each saved exactly once
+        assertEquals(2 + script.length, stored.version());
+    }
+
+    private ArrayList<Future<?>> sendConcurrently(ExecutorService executor, AuthData player, int gameID,
+                                                  int[] move, AtomicInteger moved, CountDownLatch start) {
+        var sent = new ArrayList<Future<?>>();
+        for (var copy = 0; copy < 4; copy++) {
+            sent.add(executor.submit(() -> {
+                start.await();
+                try {
+                    gameService.makeMove(player.authToken(), gameID, move(move));
+                    moved.incrementAndGet();
+                } catch (GameConflictException e) {
+                    throw e;
+                } catch (Exception e) {
+                    // Another copy of the move got there first
+                }
+                return null;
+            }));
+        }
+        return sent;
+    }
+
+    private static ChessMove move(int[] move) {
+        return new ChessMove(ChessPosition.of(move[0], move[1]), ChessPosition.of(move[2], move[3]), null);
+    }
+
+    @Test
+    void retriesChangeAfterConflict() {
+        var conflicts = new AtomicInteger(2);
+        var flaky = new MemoryDataAccess() {
+            @Override
+            public void updateGame(GameData game) {
+                if (conflicts.getAndDecrement() > 0) {
+                    throw new GameConflictException("changed elsewhere");
+                }
+                super.updateGame(game);
+            }
+        };
+        var service = new GameService(flaky);
+        flaky.createAuth(auth);
+        var game = service.createGame(auth.authToken(), "flaky");
+        service.joinGame(auth.authToken(), game.gameID(), "BLACK");
+        assertEquals("jimothy", flaky.getGame(game.gameID()).blackUsername());
+        assertEquals(1, flaky.getGame(game.gameID()).version());
+    }
+
+    @Test
+    void concurrentCreatesGetDistinctIDs() throws Exception {
+        var executor = Executors.newFixedThreadPool(8);
+        var results = new ArrayList<Future<GameData>>();
+        for (var i = 0; i < 100; i++) {
+            results.add(executor.submit(() -> gameService.createGame(auth.authToken(), "many")));
+        }
+        var ids = new HashSet<Integer>();
+        for (var result : results) {
+            ids.add(result.get().gameID());
+        }
+        executor.shutdown();
+        assertEquals(100, ids.size());
+    }
+
     @Test
     void listGames() {
         var game = gameService.createGame(auth.authToken(), "game4");
@@ -72,6 +229,35 @@ class ServiceTest {
         });
     }
 
+    @Test
+    void listGamesPaged() {
+        for (var i = 0; i < 5; i++) {
+            gameService.createGame(auth.authToken(), "paged" + i);
+        }
+        var first = gameService.listGames(auth.authToken(), new GameQuery(0, 2, false, null, null));
+        assertEquals(2, first.games().size());
+        assertNotNull(first.nextCursor());
+        var second = gameService.listGames(auth.authToken(), new GameQuery(first.nextCursor(), 3, false, null, null));
+        assertEquals(3, second.games().size());
+        assertNull(second.nextCursor());
+        assertTrue(first.games().get(1).gameID() < second.games().get(0).gameID());
+    }
+
+    @Test
+    void listGamesFiltered() {
+        var open = gameService.createGame(auth.authToken(), "open");
+        var mine = gameService.createGame(auth.authToken(), "mine");
+        gameService.joinGame(auth.authToken(), mine.gameID(), "WHITE");
+        gameService.joinGame(auth.authToken(), mine.gameID(), "BLACK");
+        var full = gameService.listGames(auth.authToken(), new GameQuery(0, GameQuery.NO_LIMIT, false, "jimothy", null));
+        assertEquals(1, full.games().size());
+        assertEquals(mine.gameID(), full.games().get(0).gameID());
+        var withSeats = gameService.listGames(auth.authToken(), new GameQuery(0, GameQuery.NO_LIMIT, true, null, false));
+        assertEquals(1, withSeats.games().size());
+        assertEquals(open.gameID(), withSeats.games().get(0).gameID());
+        assertTrue(gameService.listGames(auth.authToken(), new GameQuery(0, 10, false, null, true)).games().isEmpty());
+    }
+
     @Test
     void listGamesBadAuth() {
         var game = gameService.createGame(auth.authToken(), "game4");
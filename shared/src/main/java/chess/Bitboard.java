@@ -0,0 +1,391 @@
+package chess;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A bitboard representation of the pieces on a chessboard. Each piece type and
+ * color gets its own 64-bit set, with bit {@code n} standing for square {@code n}.
+ * <p>
+ * Squares are numbered 0 (row 1, column 1) through 63 (row 8, column 8), so moving
+ * up a row adds 8 and moving right a column adds 1.
+ */
+class Bitboard implements Serializable {
+
+    static final int WHITE = 0;
+    static final int BLACK = 1;
+
+    static final int KING = ChessPiece.PieceType.KING.ordinal();
+    static final int QUEEN = ChessPiece.PieceType.QUEEN.ordinal();
+    static final int BISHOP = ChessPiece.PieceType.BISHOP.ordinal();
+    static final int KNIGHT = ChessPiece.PieceType.KNIGHT.ordinal();
+    static final int ROOK = ChessPiece.PieceType.ROOK.ordinal();
+    static final int PAWN = ChessPiece.PieceType.PAWN.ordinal();
+
+    static final int NO_PIECE = -1;
+    static final int NO_SQUARE = -1;
+
+    static final int WHITE_KINGSIDE = 1;
+    static final int WHITE_QUEENSIDE = 2;
+    static final int BLACK_KINGSIDE = 4;
+    static final int BLACK_QUEENSIDE = 8;
+    static final int ALL_CASTLING = 15;
+
+    // Bits of an undo record returned by make()
+    private static final long UNDO_EN_PASSANT = 1L << 32;
+    private static final long UNDO_CASTLE = 1L << 33;
+    private static final long UNDO_PROMOTION = 1L << 34;
+
+    // The castling rights that survive a move touching each square
+    private static final int[] CASTLING_MASK = new int[64];
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+    private static final ChessPiece[] PIECES = new ChessPiece[12];
+
+    static {
+        Arrays.fill(CASTLING_MASK, ALL_CASTLING);
+        CASTLING_MASK[square(1, 5)] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_MASK[square(1, 8)] &= ~WHITE_KINGSIDE;
+        CASTLING_MASK[square(1, 1)] &= ~WHITE_QUEENSIDE;
+        CASTLING_MASK[square(8, 5)] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_MASK[square(8, 8)] &= ~BLACK_KINGSIDE;
+        CASTLING_MASK[square(8, 1)] &= ~BLACK_QUEENSIDE;
+
+        for (var color = WHITE; color <= BLACK; color++) {
+            for (var type : TYPES) {
+                PIECES[pieceIndex(color, type.ordinal())] = ChessPiece.of(teamColor(color), type);
+            }
+        }
+    }
+
+    // One set per piece, indexed by color * 6 + type
+    final long[] pieces = new long[12];
+    // One set per color holding every square that color occupies
+    final long[] occupancy = new long[2];
+    long allOccupancy;
+
+    // Castling still available, as a combination of the *_KINGSIDE and *_QUEENSIDE flags
+    int castlingRights;
+    // The square a pawn skipped over with a double move last turn, or NO_SQUARE
+    int enPassantSquare = NO_SQUARE;
+    // Moves since the last capture or pawn move
+    int halfmoveClock;
+    // The Zobrist keys of every piece on its square XORed together, kept up to date
+    // by put and remove
+    long pieceKey;
+
+    Bitboard() {
+
+    }
+
+    private Bitboard(Bitboard other) {
+        System.arraycopy(other.pieces, 0, pieces, 0, pieces.length);
+        System.arraycopy(other.occupancy, 0, occupancy, 0, occupancy.length);
+        allOccupancy = other.allOccupancy;
+        castlingRights = other.castlingRights;
+        enPassantSquare = other.enPassantSquare;
+        halfmoveClock = other.halfmoveClock;
+        pieceKey = other.pieceKey;
+    }
+
+    /**
+     * @return the square index of a row and column, or -1 if it is off the board
+     */
+    static int square(int row, int col) {
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            return -1;
+        }
+        return (row - 1) * 8 + (col - 1);
+    }
+
+    static int square(ChessPosition position) {
+        return square(position.getRow(), position.getColumn());
+    }
+
+    static ChessPosition position(int square) {
+        return ChessPosition.of(row(square), column(square));
+    }
+
+    static int row(int square) {
+        return (square >>> 3) + 1;
+    }
+
+    static int column(int square) {
+        return (square & 7) + 1;
+    }
+
+    static int pieceIndex(int color, int type) {
+        return color * 6 + type;
+    }
+
+    static int pieceIndex(ChessPiece piece) {
+        return pieceIndex(color(piece.getTeamColor()), piece.getPieceType().ordinal());
+    }
+
+    static int colorOf(int pieceIndex) {
+        return pieceIndex / 6;
+    }
+
+    static int typeOf(int pieceIndex) {
+        return pieceIndex % 6;
+    }
+
+    static int color(ChessGame.TeamColor teamColor) {
+        return teamColor == ChessGame.TeamColor.WHITE ? WHITE : BLACK;
+    }
+
+    static ChessGame.TeamColor teamColor(int color) {
+        return color == WHITE ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+    }
+
+    static ChessPiece piece(int pieceIndex) {
+        return PIECES[pieceIndex];
+    }
+
+    /**
+     * @return the index of the piece on a square, or {@link #NO_PIECE} if it is empty
+     */
+    int pieceIndexAt(int square) {
+        var bit = 1L << square;
+        if ((allOccupancy & bit) == 0) {
+            return NO_PIECE;
+        }
+        var color = (occupancy[WHITE] & bit) != 0 ? WHITE : BLACK;
+        for (var type = 0; type < 6; type++) {
+            if ((pieces[pieceIndex(color, type)] & bit) != 0) {
+                return pieceIndex(color, type);
+            }
+        }
+        return NO_PIECE;
+    }
+
+    ChessPiece pieceAt(int square) {
+        var index = pieceIndexAt(square);
+        return index == NO_PIECE ? null : PIECES[index];
+    }
+
+    /**
+     * The king bitboard doubles as the king position cache, so finding a king is a
+     * single trailing-zero count rather than a board scan.
+     *
+     * @return the square of a color's king, or {@link #NO_SQUARE} if it has none
+     */
+    int kingSquare(int color) {
+        var kings = pieces[pieceIndex(color, KING)];
+        return kings == 0 ? NO_SQUARE : Long.numberOfTrailingZeros(kings);
+    }
+
+    /**
+     * Places a piece on an empty square
+     */
+    void put(int square, int pieceIndex) {
+        var bit = 1L << square;
+        pieces[pieceIndex] |= bit;
+        occupancy[colorOf(pieceIndex)] |= bit;
+        allOccupancy |= bit;
+        pieceKey ^= Zobrist.PIECE_SQUARE[pieceIndex][square];
+    }
+
+    /**
+     * Removes a known piece from its square
+     */
+    void remove(int square, int pieceIndex) {
+        var bit = ~(1L << square);
+        pieces[pieceIndex] &= bit;
+        occupancy[colorOf(pieceIndex)] &= bit;
+        allOccupancy &= bit;
+        pieceKey ^= Zobrist.PIECE_SQUARE[pieceIndex][square];
+    }
+
+    /**
+     * Replaces whatever is on a square with the given piece, or clears it if the piece
+     * is {@link #NO_PIECE}
+     */
+    void set(int square, int pieceIndex) {
+        var current = pieceIndexAt(square);
+        if (current != NO_PIECE) {
+            remove(square, current);
+        }
+        if (pieceIndex != NO_PIECE) {
+            put(square, pieceIndex);
+        }
+    }
+
+    void clear() {
+        Arrays.fill(pieces, 0L);
+        Arrays.fill(occupancy, 0L);
+        allOccupancy = 0L;
+        pieceKey = 0L;
+        castlingRights = 0;
+        enPassantSquare = NO_SQUARE;
+        halfmoveClock = 0;
+    }
+
+    /**
+     * Grants every castling right whose king and rook are still on their starting
+     * squares. Used when a position is set up directly rather than played into.
+     */
+    void resetCastlingRights() {
+        castlingRights = 0;
+        if (pieceIndexAt(square(1, 5)) == pieceIndex(WHITE, KING)) {
+            if (pieceIndexAt(square(1, 8)) == pieceIndex(WHITE, ROOK)) {
+                castlingRights |= WHITE_KINGSIDE;
+            }
+            if (pieceIndexAt(square(1, 1)) == pieceIndex(WHITE, ROOK)) {
+                castlingRights |= WHITE_QUEENSIDE;
+            }
+        }
+        if (pieceIndexAt(square(8, 5)) == pieceIndex(BLACK, KING)) {
+            if (pieceIndexAt(square(8, 8)) == pieceIndex(BLACK, ROOK)) {
+                castlingRights |= BLACK_KINGSIDE;
+            }
+            if (pieceIndexAt(square(8, 1)) == pieceIndex(BLACK, ROOK)) {
+                castlingRights |= BLACK_QUEENSIDE;
+            }
+        }
+    }
+
+    /**
+     * Makes a move in place without checking that it is legal. A king moving two
+     * columns also moves its rook, and a pawn moving onto the en passant square
+     * removes the pawn it passed.
+     *
+     * @param promotionType the piece type to promote to, or {@link #NO_PIECE}
+     * @return an undo record holding everything {@link #unmake} needs to restore
+     * the position
+     */
+    long make(int from, int to, int promotionType) {
+        var moving = pieceIndexAt(from);
+        var color = colorOf(moving);
+        var type = typeOf(moving);
+        var captureSquare = to;
+        var flags = 0L;
+
+        if (type == PAWN && to == enPassantSquare && column(from) != column(to)) {
+            captureSquare = color == WHITE ? to - 8 : to + 8;
+            flags |= UNDO_EN_PASSANT;
+        }
+        var captured = pieceIndexAt(captureSquare);
+        var undo = (captured + 1L) | ((long) castlingRights << 4) | ((enPassantSquare + 1L) << 8)
+                | ((long) halfmoveClock << 16) | flags;
+
+        if (captured != NO_PIECE) {
+            remove(captureSquare, captured);
+        }
+        remove(from, moving);
+        if (promotionType != NO_PIECE) {
+            put(to, pieceIndex(color, promotionType));
+            undo |= UNDO_PROMOTION;
+        } else {
+            put(to, moving);
+        }
+        if (type == KING && Math.abs(column(to) - column(from)) == 2) {
+            moveCastlingRook(from, to, false);
+            undo |= UNDO_CASTLE;
+        }
+
+        castlingRights &= CASTLING_MASK[from] & CASTLING_MASK[to];
+        enPassantSquare = (type == PAWN && Math.abs(to - from) == 16) ? (from + to) / 2 : NO_SQUARE;
+        halfmoveClock = (type == PAWN || captured != NO_PIECE) ? 0 : halfmoveClock + 1;
+        return undo;
+    }
+
+    /**
+     * Takes back a move made with {@link #make}
+     *
+     * @param undo the record {@link #make} returned for this move
+     */
+    void unmake(int from, int to, long undo) {
+        var moved = pieceIndexAt(to);
+        var color = colorOf(moved);
+        remove(to, moved);
+        put(from, (undo & UNDO_PROMOTION) != 0 ? pieceIndex(color, PAWN) : moved);
+        if ((undo & UNDO_CASTLE) != 0) {
+            moveCastlingRook(from, to, true);
+        }
+
+        var captured = (int) (undo & 0xF) - 1;
+        if (captured != NO_PIECE) {
+            var captureSquare = to;
+            if ((undo & UNDO_EN_PASSANT) != 0) {
+                captureSquare = color == WHITE ? to - 8 : to + 8;
+            }
+            put(captureSquare, captured);
+        }
+
+        castlingRights = (int) ((undo >>> 4) & 0xF);
+        enPassantSquare = (int) ((undo >>> 8) & 0x7F) - 1;
+        halfmoveClock = (int) ((undo >>> 16) & 0xFFFF);
+    }
+
+    private void moveCastlingRook(int kingFrom, int kingTo, boolean undo) {
+        var kingside = kingTo > kingFrom;
+        var rookFrom = kingside ? kingFrom + 3 : kingFrom - 4;
+        var rookTo = kingside ? kingFrom + 1 : kingFrom - 1;
+        if (undo) {
+            var swap = rookFrom;
+            rookFrom = rookTo;
+            rookTo = swap;
+        }
+        var rook = pieceIndexAt(rookFrom);
+        if (rook != NO_PIECE) {
+            remove(rookFrom, rook);
+            put(rookTo, rook);
+        }
+    }
+
+    /**
+     * The Zobrist key of the position, not counting the side to move. The piece part
+     * is kept up to date as pieces move; castling rights and en passant are looked up
+     * here. The en passant file only counts when a pawn is in place to capture, so
+     * positions that play the same are not told apart by a double move that cannot
+     * be answered.
+     *
+     * @return a 64-bit key identifying the position
+     */
+    long key() {
+        var key = pieceKey ^ Zobrist.CASTLING[castlingRights];
+        if (enPassantSquare != NO_SQUARE) {
+            var capturer = row(enPassantSquare) == 6 ? WHITE : BLACK;
+            var capturingPawns = pieces[pieceIndex(capturer, PAWN)];
+            if ((MoveGenerator.PAWN_ATTACKS[1 - capturer][enPassantSquare] & capturingPawns) != 0) {
+                key ^= Zobrist.EN_PASSANT_FILE[column(enPassantSquare) - 1];
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Works out the piece part of the key from scratch, for checking the
+     * incrementally kept {@link #pieceKey}
+     */
+    long computePieceKey() {
+        var key = 0L;
+        for (var piece = 0; piece < 12; piece++) {
+            var set = pieces[piece];
+            while (set != 0) {
+                key ^= Zobrist.PIECE_SQUARE[piece][Long.numberOfTrailingZeros(set)];
+                set &= set - 1;
+            }
+        }
+        return key;
+    }
+
+    Bitboard copy() {
+        return new Bitboard(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Bitboard that = (Bitboard) o;
+        return Arrays.equals(pieces, that.pieces);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(pieceKey);
+    }
+}
@@ -1,7 +1,6 @@
 package chess;
 
 import java.io.Serializable;
-import java.util.Arrays;
 import java.util.Objects;
 
 /**
@@ -11,14 +10,14 @@ import java.util.Objects;
  * signature of the existing methods.
  */
 public class ChessBoard implements Serializable {
-    ChessPiece[][] board = new ChessPiece[9][9];
+    Bitboard bitboard = new Bitboard();
 
     public ChessBoard() {
 
     }
 
-    private ChessBoard(ChessPiece[][] newBoard) {
-        board = newBoard;
+    private ChessBoard(Bitboard newBitboard) {
+        bitboard = newBitboard;
     }
 
     /**
@@ -28,7 +27,11 @@ public class ChessBoard implements Serializable {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        board[position.getRow()][position.getColumn()] = piece;
+        var square = Bitboard.square(position);
+        if (square < 0) {
+            throw new IllegalArgumentException(position + " is not on the board");
+        }
+        bitboard.set(square, piece == null ? Bitboard.NO_PIECE : Bitboard.pieceIndex(piece));
     }
 
     /**
@@ -39,69 +42,133 @@ public class ChessBoard implements Serializable {
      * position
      */
     public ChessPiece getPiece(ChessPosition position) {
-        return board[position.getRow()][position.getColumn()];
+        var square = Bitboard.square(position);
+        if (square < 0) {
+            return null;
+        }
+        return bitboard.pieceAt(square);
     }
 
-    public void movePiece(ChessMove move) {
-        var startPos = move.getStartPosition();
-        var endPos = move.getEndPosition();
-        if (move.getPromotionPiece() != null) {
-            var oldPiece = this.getPiece(startPos);
-            board[endPos.getRow()][endPos.getColumn()] = new ChessPiece(oldPiece.getTeamColor(), move.getPromotionPiece());
-        } else {
-            board[endPos.getRow()][endPos.getColumn()] = board[startPos.getRow()][startPos.getColumn()];
+    /**
+     * Determines if any piece of a team attacks a square
+     *
+     * @param position the square to look at
+     * @param byColor  the team that might be attacking it
+     * @return True if a piece of that team attacks the square
+     */
+    public boolean isSquareAttacked(ChessPosition position, ChessGame.TeamColor byColor) {
+        var square = Bitboard.square(position);
+        if (square < 0) {
+            return false;
         }
-        board[startPos.getRow()][startPos.getColumn()] = null;
-
+        return MoveGenerator.isSquareAttacked(bitboard, square, Bitboard.color(byColor), bitboard.allOccupancy);
     }
 
     /**
-     * Sets the board to the default starting board
-     * (How the game of chess normally starts)
+     * Gets where a team's king is
+     *
+     * @param teamColor the team whose king to find
+     * @return the king's position, or null if that team has no king on the board
      */
-    public void resetBoard() {
-        board = new ChessPiece[9][9];
-        for (var i = 1; i < 9; i++) {
-            board[2][i] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-            board[7][i] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
-
+    public ChessPosition getKingPosition(ChessGame.TeamColor teamColor) {
+        var square = bitboard.kingSquare(Bitboard.color(teamColor));
+        if (square == Bitboard.NO_SQUARE) {
+            return null;
         }
-        board[1][1] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
-        board[1][8] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
-
-        board[8][1] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
-        board[8][8] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
-
-        board[1][2] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
-        board[1][7] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
-
-        board[8][2] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
-        board[8][7] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
+        return Bitboard.position(square);
+    }
 
-        board[1][3] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
-        board[1][6] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
+    public void movePiece(ChessMove move) {
+        var start = Bitboard.square(move.getStartPosition());
+        var end = Bitboard.square(move.getEndPosition());
+        var moving = bitboard.pieceIndexAt(start);
+        if (moving == Bitboard.NO_PIECE) {
+            return;
+        }
+        bitboard.remove(start, moving);
+        if (move.getPromotionPiece() != null) {
+            moving = Bitboard.pieceIndex(Bitboard.colorOf(moving), move.getPromotionPiece().ordinal());
+        }
+        bitboard.set(end, moving);
+    }
 
-        board[8][3] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
-        board[8][6] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
+    /**
+     * Makes a move in place, including moving the rook when castling and removing
+     * the passed pawn when capturing en passant. The move is not checked for
+     * legality.
+     *
+     * @param move the move to make
+     * @return an undo record to hand back to {@link #unmakeMove(ChessMove, long)}
+     */
+    public long makeMove(ChessMove move) {
+        var promotion = move.getPromotionPiece();
+        return bitboard.make(Bitboard.square(move.getStartPosition()), Bitboard.square(move.getEndPosition()),
+                promotion == null ? Bitboard.NO_PIECE : promotion.ordinal());
+    }
 
-        board[1][5] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
+    /**
+     * Takes back the last move made with {@link #makeMove(ChessMove)}
+     *
+     * @param move the move to take back
+     * @param undo the record returned when the move was made
+     */
+    public void unmakeMove(ChessMove move, long undo) {
+        bitboard.unmake(Bitboard.square(move.getStartPosition()), Bitboard.square(move.getEndPosition()), undo);
+    }
 
-        board[8][5] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+    /**
+     * Makes a packed move in place, see {@link #makeMove(ChessMove)}
+     *
+     * @param move the move as packed by {@link Move}
+     * @return an undo record to hand back to {@link #unmakeMove(int, long)}
+     */
+    public long makeMove(int move) {
+        return bitboard.make(Move.from(move), Move.to(move), Move.promotion(move));
+    }
 
-        board[1][4] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN);
+    /**
+     * Takes back the last packed move made with {@link #makeMove(int)}
+     *
+     * @param move the move to take back
+     * @param undo the record returned when the move was made
+     */
+    public void unmakeMove(int move, long undo) {
+        bitboard.unmake(Move.from(move), Move.to(move), undo);
+    }
 
-        board[8][4] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN);
+    /**
+     * Sets the board to the default starting board
+     * (How the game of chess normally starts)
+     */
+    public void resetBoard() {
+        bitboard.clear();
+        ChessPiece.PieceType[] backRank = {
+                ChessPiece.PieceType.ROOK, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.BISHOP,
+                ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.KING, ChessPiece.PieceType.BISHOP,
+                ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.ROOK};
+        for (var col = 1; col < 9; col++) {
+            var type = backRank[col - 1].ordinal();
+            bitboard.put(Bitboard.square(1, col), Bitboard.pieceIndex(Bitboard.WHITE, type));
+            bitboard.put(Bitboard.square(2, col), Bitboard.pieceIndex(Bitboard.WHITE, Bitboard.PAWN));
+            bitboard.put(Bitboard.square(7, col), Bitboard.pieceIndex(Bitboard.BLACK, Bitboard.PAWN));
+            bitboard.put(Bitboard.square(8, col), Bitboard.pieceIndex(Bitboard.BLACK, type));
+        }
+        bitboard.castlingRights = Bitboard.ALL_CASTLING;
+    }
 
+    /**
+     * Gets a 64-bit Zobrist key for the pieces, castling rights and en passant
+     * square on this board. It costs a few lookups rather than a walk over the board.
+     * The side to move is not part of a board, see {@link ChessGame#getZobristKey}.
+     *
+     * @return the key for this position
+     */
+    public long getZobristKey() {
+        return bitboard.key();
     }
 
     public ChessBoard copy() {
-        ChessPiece[][] copiedBoard = new ChessPiece[9][9];
-        for (var i = 1; i < 9; i++) {
-            for (var j = 1; j < 9; j++) {
-                copiedBoard[i][j] = board[i][j];
-            }
-        }
-        return new ChessBoard(copiedBoard);
+        return new ChessBoard(bitboard.copy());
     }
 
     @Override
@@ -110,27 +177,29 @@ public class ChessBoard implements Serializable {
             return false;
         }
         ChessBoard that = (ChessBoard) o;
-        return Objects.deepEquals(board, that.board);
+        return Objects.equals(bitboard, that.bitboard);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(board);
+        return bitboard.hashCode();
     }
 
     @Override
     public String toString() {
-        var s = "";
-        for (var row : board) {
-            for (var p : row) {
+        var s = new StringBuilder();
+        for (var row = 0; row < 9; row++) {
+            for (var col = 0; col < 9; col++) {
+                var square = Bitboard.square(row, col);
+                var p = square < 0 ? null : bitboard.pieceAt(square);
                 if (p != null) {
-                    s += p.toString() + "|";
+                    s.append(p).append('|');
                 } else {
-                    s += "_|";
+                    s.append("_|");
                 }
             }
-            s += "\n";
+            s.append('\n');
         }
-        return s;
+        return s.toString();
     }
 }
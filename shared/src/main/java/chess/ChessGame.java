@@ -3,7 +3,8 @@ package chess;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -15,17 +16,51 @@ import java.util.Objects;
 
 public class ChessGame implements Serializable {
 
+    // Halfmoves without a capture or pawn move after which the game is drawn
+    private static final int FIFTY_MOVE_LIMIT = 100;
+
     private boolean isWhitesTurn;
     private ChessBoard gameboard;
-    private ArrayList<ChessBoard> history;
+    private MoveList history;
     private TeamColor winner;
     private boolean isOver;
+    private GameStatus status = GameStatus.IN_PROGRESS;
+    // How many times each position has come up since the last capture or pawn move,
+    // keyed by Zobrist key. Earlier positions can never come back, so they are dropped.
+    private HashMap<Long, Integer> repetitions = new HashMap<>();
 
     public ChessGame() {
         gameboard = new ChessBoard();
         gameboard.resetBoard();
         isWhitesTurn = true;
-        history = new ArrayList<ChessBoard>();
+        history = new MoveList();
+        resetRepetitions();
+    }
+
+    /**
+     * Creates a game at a position that was set up directly, keeping the board's
+     * castling rights, en passant square and halfmove clock as they are
+     */
+    static ChessGame fromPosition(ChessBoard board, TeamColor turn) {
+        var game = new ChessGame();
+        game.gameboard = board;
+        game.setTeamTurn(turn);
+        return game;
+    }
+
+    /**
+     * Rebuilds a game from its stored parts, see {@link ChessGameCodec}
+     */
+    static ChessGame restore(ChessBoard board, TeamColor turn, MoveList history, GameStatus status,
+                             TeamColor winner, Map<Long, Integer> repetitions) {
+        var game = fromPosition(board, turn);
+        game.history = history;
+        game.status = status;
+        game.isOver = status != GameStatus.IN_PROGRESS;
+        game.winner = winner;
+        game.repetitions.clear();
+        game.repetitions.putAll(repetitions);
+        return game;
     }
 
     public boolean isWhitesTurn() {
@@ -39,12 +74,20 @@ public class ChessGame implements Serializable {
     public void resign(TeamColor resigningTeam) {
         winner = otherTeam(resigningTeam);
         isOver = true;
+        status = GameStatus.RESIGNED;
     }
 
     public boolean isOver() {
         return isOver;
     }
 
+    /**
+     * @return whether the game is still going, and if not, how it ended
+     */
+    public GameStatus getStatus() {
+        return status;
+    }
+
     /**
      * @return Which team's turn it is
      */
@@ -59,6 +102,7 @@ public class ChessGame implements Serializable {
      */
     public void setTeamTurn(TeamColor team) {
         isWhitesTurn = (team == TeamColor.WHITE);
+        resetRepetitions();
     }
 
     /**
@@ -69,6 +113,18 @@ public class ChessGame implements Serializable {
         BLACK,
     }
 
+    /**
+     * Enum identifying where a game stands and how it ended
+     */
+    public enum GameStatus {
+        IN_PROGRESS,
+        CHECKMATE,
+        STALEMATE,
+        RESIGNED,
+        THREEFOLD_REPETITION,
+        FIFTY_MOVE_RULE,
+    }
+
     /**
      * A utility method to easily get the other team.
      *
@@ -92,89 +148,65 @@ public class ChessGame implements Serializable {
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
         var startPiece = gameboard.getPiece(startPosition);
-        var validMoves = new HashSet<ChessMove>();
-        var possibleMoves = startPiece.pieceMoves(gameboard, startPosition);
-        if (startPiece.getPieceType() == ChessPiece.PieceType.KING) {
-            possibleMoves.addAll(allCastleMoves(startPiece.getTeamColor()));
-        }
-        if (startPiece.getPieceType() == ChessPiece.PieceType.PAWN) {
-            possibleMoves.addAll(enPassant(startPosition));
+        if (startPiece == null) {
+            return null;
         }
-        for (var potentialMove : possibleMoves) {
-            var potentialBoard = gameboard.copy();
-            potentialBoard.movePiece(potentialMove);
-            if (!evaluateBoardForCheck(potentialBoard, startPiece.getTeamColor())) {
-                validMoves.add(potentialMove);
-            }
-        }
-        return validMoves;
+        var validMoves = new MoveList();
+        var generator = new LegalMoveGenerator(gameboard.bitboard, Bitboard.color(startPiece.getTeamColor()));
+        generator.generate(1L << Bitboard.square(startPosition), validMoves);
+        return validMoves.toChessMoves(new ArrayList<>(validMoves.size()));
     }
 
-    private Collection<ChessMove> allValidMovesForTeam(TeamColor color) {
-        var allMoves = new HashSet<ChessMove>();
-        for (var row = 1; row < 9; row++) {
-            for (var col = 1; col < 9; col++) {
-                var currentPiece = gameboard.getPiece(new ChessPosition(row, col));
-                if (currentPiece != null && currentPiece.getTeamColor() == color) {
-                    allMoves.addAll(validMoves(new ChessPosition(row, col)));
-                }
-            }
-        }
-        return allMoves;
+    /**
+     * Gets every valid move a team can make
+     *
+     * @param teamColor the team to get valid moves for
+     * @return Collection of every legal move for the team's pieces
+     */
+    public Collection<ChessMove> allValidMoves(TeamColor teamColor) {
+        var validMoves = legalMoves(teamColor);
+        return validMoves.toChessMoves(new ArrayList<>(validMoves.size()));
     }
 
     /**
-     * Evaluates a board to see if a team is in check.
+     * Gets every valid move a team can make as packed {@link Move} ints
      *
-     * @param board
-     * @param teamColor
-     * @return true if the team is in check.
+     * @param teamColor the team to get valid moves for
+     * @return a list of every legal move for the team's pieces
      */
-    private boolean evaluateBoardForCheck(ChessBoard board, TeamColor teamColor) {
-        var kingPos = getKingPosition(board, teamColor);
-
-        for (var row = 1; row < 9; row++) {
-            for (var col = 1; col < 9; col++) {
-                if (pieceCanAttackKing(board, row, col, teamColor, kingPos)) {
-                    return true;
-                }
-            }
-        }
-        return false;
+    public MoveList legalMoves(TeamColor teamColor) {
+        var validMoves = new MoveList();
+        new LegalMoveGenerator(gameboard.bitboard, Bitboard.color(teamColor)).generate(~0L, validMoves);
+        return validMoves;
     }
 
-    private boolean pieceCanAttackKing(ChessBoard board, int row, int col, TeamColor teamColor, ChessPosition kingPos) {
-        var currentPiece = board.getPiece(new ChessPosition(row, col));
-        if (currentPiece != null && currentPiece.getTeamColor() == otherTeam(teamColor)) {
-            var potentialMoves = currentPiece.pieceMoves(board, new ChessPosition(row, col));
-            for (var move : potentialMoves) {
-                if (move.getEndPosition().getColumn() == kingPos.getColumn() && move.getEndPosition().getRow() == kingPos.getRow()) {
-                    return true;
-                }
-            }
-        }
-        return false;
+    /**
+     * @return the moves played so far, oldest first, as packed {@link Move} ints
+     */
+    public MoveList getHistory() {
+        return history.copy();
     }
 
-    private void makeEnPassantMove(ChessMove move, ChessPiece startingPiece) {
-        for (var ep : enPassant(move.getStartPosition())) {
-            if (ep.getEndPosition().equals(move.getEndPosition())) {
-                var pawnBehindVector = (startingPiece.getTeamColor() == TeamColor.BLACK) ? 1 : -1;
-                gameboard.addPiece(
-                        new ChessPosition(move.getEndPosition().getRow() + pawnBehindVector, move.getEndPosition().getColumn()), null);
-            }
-        }
+    /**
+     * @return how many moves have been played, without copying the history
+     */
+    public int moveCount() {
+        return history.size();
     }
 
+    /**
+     * @return the last move played as a packed {@link Move} int, or {@link Move#NONE}
+     * if there has not been one
+     */
+    public int lastMove() {
+        return history.isEmpty() ? Move.NONE : history.get(history.size() - 1);
+    }
 
-    private void moveTheRooksAfterCastling(ChessMove move) {
-        if (move.getStartPosition().getColumn() - move.getEndPosition().getColumn() == -2) {
-            gameboard.movePiece(new ChessMove(new ChessPosition(move.getStartPosition().getRow(), 8),
-                    new ChessPosition(move.getStartPosition().getRow(), 6), null));
-        } else if (move.getStartPosition().getColumn() - move.getEndPosition().getColumn() == 2) {
-            gameboard.movePiece(new ChessMove(new ChessPosition(move.getStartPosition().getRow(), 1),
-                    new ChessPosition(move.getStartPosition().getRow(), 4), null));
-        }
+    /**
+     * @return a game in the same state that can be played on without affecting this one
+     */
+    public ChessGame copy() {
+        return restore(gameboard.copy(), getTeamTurn(), getHistory(), status, winner, repetitions);
     }
 
     /**
@@ -186,25 +218,19 @@ public class ChessGame implements Serializable {
     public void makeMove(ChessMove move) throws InvalidMoveException {
         try {
             var startingPiece = gameboard.getPiece(move.getStartPosition());
-            if (((startingPiece.getTeamColor() == TeamColor.WHITE && isWhitesTurn)
-                    || (startingPiece.getTeamColor() == TeamColor.BLACK && !isWhitesTurn)) && validMoves(move.getStartPosition()).contains(move)) {
-                if (startingPiece.getPieceType() == ChessPiece.PieceType.PAWN && !enPassant(move.getStartPosition()).isEmpty()) {
-                    makeEnPassantMove(move, startingPiece);
-                }
-
-                history.add(gameboard.copy());
-                if (startingPiece.getPieceType() == ChessPiece.PieceType.KING) {
-                    moveTheRooksAfterCastling(move);
-                }
-                gameboard.movePiece(move);
+            var packed = Move.NONE;
+            if ((startingPiece.getTeamColor() == TeamColor.WHITE && isWhitesTurn)
+                    || (startingPiece.getTeamColor() == TeamColor.BLACK && !isWhitesTurn)) {
+                var candidates = new MoveList(32);
+                var generator = new LegalMoveGenerator(gameboard.bitboard, Bitboard.color(startingPiece.getTeamColor()));
+                generator.generate(1L << Bitboard.square(move.getStartPosition()), candidates);
+                packed = candidates.find(Move.fromChessMove(move));
+            }
+            if (packed != Move.NONE) {
+                gameboard.makeMove(packed);
+                history.add(packed);
                 isWhitesTurn = !isWhitesTurn;
-                if (isInCheckmate(otherTeam(startingPiece.getTeamColor()))) {
-                    isOver = true;
-                    winner = startingPiece.getTeamColor();
-                } else if (isInStalemate(otherTeam(startingPiece.getTeamColor()))) {
-                    isOver = true;
-                    winner = null; // Draw
-                }
+                updateStatus(otherTeam(startingPiece.getTeamColor()));
             } else {
                 System.out.println(validMoves(move.getStartPosition()));
                 throw new InvalidMoveException(move.toString() + " is an invalid move.");
@@ -214,164 +240,50 @@ public class ChessGame implements Serializable {
         }
     }
 
-    private ChessPosition getKingPosition(ChessBoard board, TeamColor teamColor) {
-        for (var row = 1; row < 9; row++) {
-            for (var col = 1; col < 9; col++) {
-                var pieceInQuestion = board.getPiece(new ChessPosition(row, col));
-                if (pieceInQuestion != null && pieceInQuestion.getPieceType() == ChessPiece.PieceType.KING
-                        && pieceInQuestion.getTeamColor() == teamColor) {
-                    return new ChessPosition(row, col);
-                }
-            }
-        }
-        return new ChessPosition(0, 0);
-    }
-
-    private Collection<ChessMove> allCastleMoves(TeamColor teamColor) {
-        var possibleCastles = new HashSet<ChessMove>();
-        if (getKingPosition(gameboard, teamColor).equals(new ChessPosition(1, 5))
-                || getKingPosition(gameboard, teamColor).equals(new ChessPosition(8, 5))) {
-            if (!evaluateBoardForCheck(gameboard, teamColor)) {
-                possibleCastles.addAll(possibleCastlingMovesRight(teamColor));
-                possibleCastles.addAll(possibleCastlingMovesLeft(teamColor));
-            }
-        }
-
-        return possibleCastles;
-    }
-
-    private Collection<ChessMove> possibleCastlingMovesRight(TeamColor teamColor) {
-        var row = (teamColor == TeamColor.WHITE) ? 1 : 8;
-        var possibleCastles = new HashSet<ChessMove>();
-        // Check if king is in his starting square
-        if (gameboard.getPiece(new ChessPosition(row, 5)) != null) {
-            if (gameboard.getPiece(new ChessPosition(row, 5)).getPieceType() != ChessPiece.PieceType.KING) {
-                return possibleCastles;
-            }
-        }
-        // First check that the adjacent spaces are empty
-        if (gameboard.getPiece(new ChessPosition(row, 6)) != null || gameboard.getPiece(new ChessPosition(row, 7)) != null) {
-            return possibleCastles;
-        }
-        // Check if the king will have to move through check
-        var potentialBoard = gameboard.copy();
-        potentialBoard.movePiece(new ChessMove(new ChessPosition(row, 5), new ChessPosition(row, 6), null));
-        if (evaluateBoardForCheck(potentialBoard, teamColor)) {
-            return possibleCastles;
-        }
-        potentialBoard.movePiece(new ChessMove(new ChessPosition(row, 6), new ChessPosition(row, 7), null));
-        if (evaluateBoardForCheck(potentialBoard, teamColor)) {
-            return possibleCastles;
-        }
-        // go through board and see if king or rook have moved
-
-        for (var board : history) {
-            var whereKingShouldBe = board.getPiece(new ChessPosition(row, 5));
-            var whereRookShouldBe = board.getPiece(new ChessPosition(row, 8));
-            if (whereKingShouldBe == null || whereRookShouldBe == null) {
-                return possibleCastles;
-            }
-            if (whereKingShouldBe.getPieceType() != ChessPiece.PieceType.KING || whereKingShouldBe.getTeamColor() != teamColor) {
-                return possibleCastles;
-            }
-            if (whereRookShouldBe.getPieceType() != ChessPiece.PieceType.ROOK || whereRookShouldBe.getTeamColor() != teamColor) {
-                return possibleCastles;
-            }
-
-        }
-
-        possibleCastles.add(new ChessMove(new ChessPosition(row, 5), new ChessPosition(row, 7), null));
-        return possibleCastles;
-    }
-
-    private Collection<ChessMove> possibleCastlingMovesLeft(TeamColor teamColor) {
-        var row = (teamColor == TeamColor.WHITE) ? 1 : 8;
-        var possibleCastles = new HashSet<ChessMove>();
-        // Check if king is in his starting square
-        if (gameboard.getPiece(new ChessPosition(row, 5)) != null) {
-            if (gameboard.getPiece(new ChessPosition(row, 5)).getPieceType() != ChessPiece.PieceType.KING) {
-                return possibleCastles;
-            }
-        }
-        // First check that the adjacent spaces are empty
-        if (gameboard.getPiece(new ChessPosition(row, 4)) != null || gameboard.getPiece(new ChessPosition(row, 3)) != null) {
-            return possibleCastles;
-        }
-        // Check if the king will have to move through check
-        var potentialBoard = gameboard.copy();
-        potentialBoard.movePiece(new ChessMove(new ChessPosition(row, 5), new ChessPosition(row, 4), null));
-        if (evaluateBoardForCheck(potentialBoard, teamColor)) {
-            return possibleCastles;
-        }
-        potentialBoard.movePiece(new ChessMove(new ChessPosition(row, 4), new ChessPosition(row, 3), null));
-        if (evaluateBoardForCheck(potentialBoard, teamColor)) {
-            return possibleCastles;
-        }
-        // go through board and see if king or rook have moved
-        for (var board : history) {
-            var whereKingShouldBe = board.getPiece(new ChessPosition(row, 5));
-            var whereRookShouldBe = board.getPiece(new ChessPosition(row, 1));
-            if (whereKingShouldBe == null || whereRookShouldBe == null) {
-                return possibleCastles;
-            }
-            if (whereKingShouldBe.getPieceType() != ChessPiece.PieceType.KING || whereKingShouldBe.getTeamColor() != teamColor) {
-                return possibleCastles;
-            }
-            if (whereRookShouldBe.getPieceType() != ChessPiece.PieceType.ROOK || whereRookShouldBe.getTeamColor() != teamColor) {
-                return possibleCastles;
-            }
-        }
-
-        possibleCastles.add(new ChessMove(new ChessPosition(row, 5), new ChessPosition(row, 3), null));
-        return possibleCastles;
-    }
-
-    private void enPassantHelperNormalCase(ChessBoard lastturnboard, ChessPosition startPosition, int directionVector,
-                                           HashSet<ChessMove> possibleEnPassant, TeamColor enemyColor) {
-        var potentialLastMovedPawn = lastturnboard.getPiece(
-                new ChessPosition(startPosition.getRow() + 2 * directionVector, startPosition.getColumn() + 1));
-        if (potentialLastMovedPawn != null && potentialLastMovedPawn.getPieceType() == ChessPiece.PieceType.PAWN
-                && potentialLastMovedPawn.getTeamColor() == enemyColor) {
-            var movedPawn = gameboard.getPiece(new ChessPosition(startPosition.getRow(), startPosition.getColumn() + 1));
-            if (movedPawn != null && movedPawn.getPieceType() == ChessPiece.PieceType.PAWN && movedPawn.getTeamColor() == enemyColor) {
-                possibleEnPassant.add(new ChessMove(startPosition,
-                        new ChessPosition(startPosition.getRow() + directionVector, startPosition.getColumn() + 1), null));
-            }
+    /**
+     * Works out whether the game ended with the move just made. Check is tested once,
+     * and the search for a legal move stops at the first one found, which is nearly
+     * always among the first pieces looked at. Repetitions and the fifty-move rule
+     * are a hash lookup and a counter, so every check here costs about the same no
+     * matter how long the game has gone on.
+     *
+     * @param teamToMove the team whose turn it now is
+     */
+    private void updateStatus(TeamColor teamToMove) {
+        var halfmoveClock = gameboard.bitboard.halfmoveClock;
+        if (halfmoveClock == 0) {
+            repetitions.clear();
         }
-    }
+        var seen = repetitions.merge(getZobristKey(), 1, Integer::sum);
 
-    private void enPassantHelperEdgeCase(ChessBoard lastturnboard, ChessPosition startPosition, int directionVector,
-                                         HashSet<ChessMove> possibleEnPassant, TeamColor enemyColor) {
-        var potentialLastMovedPawn = lastturnboard.getPiece(
-                new ChessPosition(startPosition.getRow() + 2 * directionVector, startPosition.getColumn() - 1));
-        if (potentialLastMovedPawn != null && potentialLastMovedPawn.getPieceType() == ChessPiece.PieceType.PAWN
-                && potentialLastMovedPawn.getTeamColor() == enemyColor) {
-            var movedPawn = gameboard.getPiece(new ChessPosition(startPosition.getRow(), startPosition.getColumn() - 1));
-            if (movedPawn != null && movedPawn.getPieceType() == ChessPiece.PieceType.PAWN && movedPawn.getTeamColor() == enemyColor) {
-                possibleEnPassant.add(new ChessMove(startPosition, new ChessPosition(startPosition.getRow() + directionVector,
-                        startPosition.getColumn() - 1), null));
+        if (!hasAnyLegalMove(teamToMove)) {
+            isOver = true;
+            if (isInCheck(teamToMove)) {
+                status = GameStatus.CHECKMATE;
+                winner = otherTeam(teamToMove);
+            } else {
+                status = GameStatus.STALEMATE;
+                winner = null; // Draw
             }
+        } else if (seen >= 3) {
+            isOver = true;
+            status = GameStatus.THREEFOLD_REPETITION;
+            winner = null;
+        } else if (halfmoveClock >= FIFTY_MOVE_LIMIT) {
+            isOver = true;
+            status = GameStatus.FIFTY_MOVE_RULE;
+            winner = null;
         }
     }
 
-    private Collection<ChessMove> enPassant(ChessPosition startPosition) {
-        var possibleEnPassant = new HashSet<ChessMove>();
-        var pawn = gameboard.getPiece(startPosition);
-        if (!history.isEmpty()) {
-            var lastturnboard = history.getLast();
-            var enemyColor = otherTeam(pawn.getTeamColor());
-            var directionVector = (pawn.getTeamColor() == TeamColor.WHITE) ? 1 : -1;
-            if (startPosition.getRow() == 4 || startPosition.getRow() == 5) {
-                if (startPosition.getColumn() < 8) {
-                    enPassantHelperNormalCase(lastturnboard, startPosition, directionVector, possibleEnPassant, enemyColor);
-                }
-
-                if (startPosition.getColumn() > 1) {
-                    enPassantHelperEdgeCase(lastturnboard, startPosition, directionVector, possibleEnPassant, enemyColor);
-                }
-            }
-        }
-        return possibleEnPassant;
+    /**
+     * Determines if a team has at least one legal move, without generating the rest
+     *
+     * @param teamColor the team to look for a move for
+     * @return True if the team can make any legal move
+     */
+    public boolean hasAnyLegalMove(TeamColor teamColor) {
+        return new LegalMoveGenerator(gameboard.bitboard, Bitboard.color(teamColor)).hasAnyMove();
     }
 
     /**
@@ -381,7 +293,8 @@ public class ChessGame implements Serializable {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
-        return evaluateBoardForCheck(gameboard, teamColor);
+        var kingPos = gameboard.getKingPosition(teamColor);
+        return kingPos != null && gameboard.isSquareAttacked(kingPos, otherTeam(teamColor));
     }
 
     /**
@@ -392,7 +305,7 @@ public class ChessGame implements Serializable {
      */
     public boolean isInCheckmate(TeamColor teamColor) {
         if (isInCheck(teamColor)) {
-            return allValidMovesForTeam(teamColor).isEmpty();
+            return !hasAnyLegalMove(teamColor);
         }
         return false;
     }
@@ -406,7 +319,7 @@ public class ChessGame implements Serializable {
      */
     public boolean isInStalemate(TeamColor teamColor) {
         if (!isInCheck(teamColor)) {
-            return allValidMovesForTeam(teamColor).isEmpty();
+            return !hasAnyLegalMove(teamColor);
         }
         return false;
     }
@@ -418,6 +331,24 @@ public class ChessGame implements Serializable {
      */
     public void setBoard(ChessBoard board) {
         gameboard = board.copy();
+        gameboard.bitboard.resetCastlingRights();
+        gameboard.bitboard.enPassantSquare = Bitboard.NO_SQUARE;
+        resetRepetitions();
+    }
+
+    /**
+     * @return the live repetition counts, keyed by Zobrist key, for storing the game
+     */
+    Map<Long, Integer> repetitionCounts() {
+        return repetitions;
+    }
+
+    /**
+     * Starts counting repetitions afresh from the current position
+     */
+    private void resetRepetitions() {
+        repetitions.clear();
+        repetitions.put(getZobristKey(), 1);
     }
 
     /**
@@ -429,6 +360,26 @@ public class ChessGame implements Serializable {
         return gameboard.copy();
     }
 
+    /**
+     * @return the board this game plays on, not a copy, for tools in this package
+     * that make and unmake moves on it directly
+     */
+    ChessBoard liveBoard() {
+        return gameboard;
+    }
+
+    /**
+     * Gets a 64-bit Zobrist key for the current position and side to move. Two games
+     * with the same key can be treated as the same position, so it suits caches,
+     * repetition checks and transposition tables.
+     *
+     * @return the key for this game's position
+     */
+    public long getZobristKey() {
+        var key = gameboard.getZobristKey();
+        return isWhitesTurn ? key : key ^ Zobrist.BLACK_TO_MOVE;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) {
@@ -0,0 +1,178 @@
+package chess;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+
+/**
+ * Turns a {@link ChessGame} into a compact, versioned byte array for storage and
+ * back again.
+ * <p>
+ * Version 1 is laid out as:
+ * <pre>
+ *   2 bytes   magic "CG"
+ *   1 byte    format version
+ *   32 bytes  the board, one 4-bit cell per square from row 1 column 1 upward,
+ *             0 for empty or the piece index plus one
+ *   1 byte    bit 0 set when black is to move, bits 1-4 the castling rights
+ *   1 byte    en passant square, or 0xFF for none
+ *   2 bytes   halfmove clock
+ *   1 byte    game status ordinal
+ *   1 byte    winner: 0 none, 1 white, 2 black
+ *   varint    number of moves played, then 3 bytes per packed move
+ *   varint    number of repetition entries, then an 8-byte key and 1-byte count each
+ * </pre>
+ * A new game comes to 52 bytes. Each move played adds 3, plus 9 for its
+ * repetition entry until the next capture or pawn move clears them.
+ */
+public final class ChessGameCodec {
+
+    private static final int MAGIC = ('C' << 8) | 'G';
+    private static final int VERSION = 1;
+    private static final int NO_SQUARE = 0xFF;
+
+    private static final ChessGame.GameStatus[] STATUSES = ChessGame.GameStatus.values();
+
+    private ChessGameCodec() {
+
+    }
+
+    /**
+     * @return whether some bytes look like they were written by {@link #encode}
+     */
+    public static boolean isEncoded(byte[] bytes) {
+        return bytes != null && bytes.length >= 3 && ((bytes[0] & 0xFF) << 8 | (bytes[1] & 0xFF)) == MAGIC;
+    }
+
+    public static byte[] encode(ChessGame game) {
+        var history = game.getHistory();
+        var repetitions = game.repetitionCounts();
+        var bytes = new ByteArrayOutputStream(48 + history.size() * 3 + repetitions.size() * 9);
+        var out = new DataOutputStream(bytes);
+        try {
+            out.writeShort(MAGIC);
+            out.writeByte(VERSION);
+
+            var board = game.liveBoard().bitboard;
+            for (var square = 0; square < 64; square += 2) {
+                out.writeByte(cell(board, square) | cell(board, square + 1) << 4);
+            }
+            out.writeByte((game.isWhitesTurn() ? 0 : 1) | board.castlingRights << 1);
+            out.writeByte(board.enPassantSquare == Bitboard.NO_SQUARE ? NO_SQUARE : board.enPassantSquare);
+            out.writeShort(Math.min(board.halfmoveClock, 0xFFFF));
+            out.writeByte(game.getStatus().ordinal());
+            var winner = game.getWinner();
+            out.writeByte(winner == null ? 0 : winner.ordinal() + 1);
+
+            writeVarint(out, history.size());
+            for (var i = 0; i < history.size(); i++) {
+                var move = history.get(i);
+                out.writeByte(move >>> 16);
+                out.writeShort(move);
+            }
+
+            writeVarint(out, repetitions.size());
+            for (var entry : repetitions.entrySet()) {
+                out.writeLong(entry.getKey());
+                out.writeByte(Math.min(entry.getValue(), 0xFF));
+            }
+        } catch (IOException e) {
+            // Writing to memory can't fail
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not a game this codec wrote
+     */
+    public static ChessGame decode(byte[] bytes) {
+        if (!isEncoded(bytes)) {
+            throw new IllegalArgumentException("Not an encoded chess game");
+        }
+        var in = new DataInputStream(new ByteArrayInputStream(bytes));
+        try {
+            in.readShort();
+            var version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported chess game format version " + version);
+            }
+
+            var board = new ChessBoard();
+            var bitboard = board.bitboard;
+            for (var square = 0; square < 64; square += 2) {
+                var pair = in.readUnsignedByte();
+                putCell(bitboard, square, pair & 0xF);
+                putCell(bitboard, square + 1, pair >>> 4);
+            }
+            var flags = in.readUnsignedByte();
+            var turn = (flags & 1) == 0 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            bitboard.castlingRights = (flags >>> 1) & Bitboard.ALL_CASTLING;
+            var enPassant = in.readUnsignedByte();
+            bitboard.enPassantSquare = enPassant == NO_SQUARE ? Bitboard.NO_SQUARE : enPassant;
+            bitboard.halfmoveClock = in.readUnsignedShort();
+
+            var statusOrdinal = in.readUnsignedByte();
+            if (statusOrdinal >= STATUSES.length) {
+                throw new IllegalArgumentException("Unknown game status " + statusOrdinal);
+            }
+            var winnerCode = in.readUnsignedByte();
+            var winner = winnerCode == 0 ? null : ChessGame.TeamColor.values()[winnerCode - 1];
+
+            var moveCount = readVarint(in);
+            // Never trust the count for sizing more than the bytes could hold
+            var history = new MoveList(Math.min(moveCount, bytes.length / 3) + 16);
+            for (var i = 0; i < moveCount; i++) {
+                history.add(in.readUnsignedByte() << 16 | in.readUnsignedShort());
+            }
+
+            var repetitionCount = readVarint(in);
+            var repetitions = new HashMap<Long, Integer>();
+            for (var i = 0; i < repetitionCount; i++) {
+                repetitions.put(in.readLong(), in.readUnsignedByte());
+            }
+            return ChessGame.restore(board, turn, history, STATUSES[statusOrdinal], winner, repetitions);
+        } catch (IOException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Encoded chess game is truncated or corrupt", e);
+        }
+    }
+
+    private static int cell(Bitboard board, int square) {
+        return board.pieceIndexAt(square) + 1;
+    }
+
+    private static void putCell(Bitboard board, int square, int cell) {
+        if (cell > 12) {
+            throw new IllegalArgumentException("Unknown piece code " + cell);
+        }
+        if (cell != 0) {
+            board.put(square, cell - 1);
+        }
+    }
+
+    private static void writeVarint(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarint(DataInputStream in) throws IOException {
+        var value = 0;
+        for (var shift = 0; shift < 32; shift += 7) {
+            var b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    throw new IOException("Negative length");
+                }
+                return value;
+            }
+        }
+        throw new IOException("Varint is too long");
+    }
+}
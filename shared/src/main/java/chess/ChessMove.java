@@ -76,6 +76,8 @@ public class ChessMove implements Serializable {
 
     @Override
     public int hashCode() {
-        return Objects.hash(startPosition, endPosition, promotionPiece);
+        var result = Objects.hashCode(startPosition);
+        result = 31 * result + Objects.hashCode(endPosition);
+        return 31 * result + Objects.hashCode(promotionPiece);
     }
 }
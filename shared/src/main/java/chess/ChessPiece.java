@@ -1,11 +1,14 @@
 package chess;
 
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Objects;
-import java.util.function.Consumer;
 
 /**
  * Represents a single chess piece
@@ -13,8 +16,20 @@ import java.util.function.Consumer;
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(ChessPiece.Adapter.class)
 public class ChessPiece implements Serializable {
 
+    // One shared instance per color and type, indexed by color * 6 + type
+    private static final ChessPiece[] PIECES = new ChessPiece[12];
+
+    static {
+        for (var color : ChessGame.TeamColor.values()) {
+            for (var type : PieceType.values()) {
+                PIECES[color.ordinal() * 6 + type.ordinal()] = new ChessPiece(color, type);
+            }
+        }
+    }
+
     private final ChessGame.TeamColor pieceColor;
     private final PieceType type;
 
@@ -23,6 +38,15 @@ public class ChessPiece implements Serializable {
         this.type = type;
     }
 
+    /**
+     * Gets the shared instance for a color and type instead of allocating a new one
+     *
+     * @return the piece of the given color and type
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, PieceType type) {
+        return PIECES[pieceColor.ordinal() * 6 + type.ordinal()];
+    }
+
     /**
      * The various different chess piece options
      */
@@ -50,50 +74,6 @@ public class ChessPiece implements Serializable {
     }
 
 
-    private boolean isSameColor(ChessPiece piece) {
-        if (piece == null) {
-            return false;
-        } else {
-            return piece.getTeamColor() == pieceColor;
-        }
-    }
-
-    private boolean canCapture(ChessPiece piece) {
-        if (piece == null) {
-            return false;
-        } else {
-            return !isSameColor(piece);
-        }
-    }
-
-    private void kingAndKnightHelperUtil(ChessBoard board, ChessPosition pos, HashSet<ChessMove> validMoves, int row, int col, int[] p) {
-        var newPos = new ChessPosition(row + p[0], col + p[1]);
-        if (newPos.getRow() >= 1 && newPos.getRow() <= 8 && newPos.getColumn() >= 1 && newPos.getColumn() <= 8) {
-            if (board.getPiece(newPos) == null) {
-                validMoves.add(new ChessMove(pos, newPos, null));
-            } else if (canCapture(board.getPiece(newPos))) {
-                validMoves.add(new ChessMove(pos, newPos, null));
-            }
-        }
-
-    }
-
-    private void moveUtility(ChessPosition pos, ChessBoard board, HashSet<ChessMove> validMoves, int rowIncrement, int colIncrement) {
-        var row = pos.getRow();
-        var col = pos.getColumn();
-        while (true) {
-            row = row + rowIncrement;
-            col = col + colIncrement;
-            if (row > 8 || col > 8 || row < 1 || col < 1 || isSameColor(board.getPiece(new ChessPosition(row, col)))) {
-                break;
-            }
-            validMoves.add(new ChessMove(pos, new ChessPosition(row, col), null));
-            if (canCapture(board.getPiece(new ChessPosition(row, col)))) {
-                break;
-            }
-        }
-    }
-
     /**
      * Calculates all the positions a chess piece can move to
      * Does not take into account moves that are illegal due to leaving the king in
@@ -102,85 +82,7 @@ public class ChessPiece implements Serializable {
      * @return Collection of valid moves
      */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition pos) {
-        var validMoves = new HashSet<ChessMove>();
-        var row = pos.getRow();
-        var col = pos.getColumn();
-
-        if (type == PieceType.BISHOP || type == PieceType.QUEEN) {
-            int[][] increments = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
-            for (int[] increment : increments) {
-                moveUtility(pos, board, validMoves, increment[0], increment[1]);
-            }
-        }
-        if (type == PieceType.ROOK || type == PieceType.QUEEN) {
-            int[][] increments = {{1, 0}, {0, -1}, {-1, 0}, {0, 1}};
-            for (int[] increment : increments) {
-                moveUtility(pos, board, validMoves, increment[0], increment[1]);
-            }
-        } else if (type == PieceType.KING) {
-            int[][] kingPossibilities = {{1, 1}, {1, 0}, {1, -1}, {0, 1}, {0, -1}, {-1, 1}, {-1, 0}, {-1, -1}};
-            for (var p : kingPossibilities) {
-                try {
-                    kingAndKnightHelperUtil(board, pos, validMoves, row, col, p);
-                } catch (Exception e) {
-                }
-            }
-        } else if (type == PieceType.KNIGHT) {
-            int[][] knightPossibilities = {{2, 1}, {1, 2}, {2, -1}, {-1, 2}, {-2, -1}, {-1, -2}, {-2, 1}, {1, -2}};
-            for (var p : knightPossibilities) {
-                try {
-                    if (col + p[1] > 0 && row + p[0] > 0) {
-                        kingAndKnightHelperUtil(board, pos, validMoves, row, col, p);
-                    }
-                } catch (Exception e) {
-                }
-            }
-        } else if (type == PieceType.PAWN) {
-            int direction = (pieceColor == ChessGame.TeamColor.WHITE) ? 1 : -1;
-            int startRow = (pieceColor == ChessGame.TeamColor.WHITE) ? 2 : 7;
-            int promoRow = (pieceColor == ChessGame.TeamColor.WHITE) ? 8 : 1;
-
-            int forwardRow = row + direction;
-            int doubleJumpRow = row + (2 * direction);
-
-            Consumer<ChessPosition> addMove = (endPos) -> {
-                if (endPos.getRow() == promoRow) {
-                    validMoves.add(new ChessMove(pos, endPos, PieceType.QUEEN));
-                    validMoves.add(new ChessMove(pos, endPos, PieceType.ROOK));
-                    validMoves.add(new ChessMove(pos, endPos, PieceType.BISHOP));
-                    validMoves.add(new ChessMove(pos, endPos, PieceType.KNIGHT));
-                } else {
-                    validMoves.add(new ChessMove(pos, endPos, null));
-                }
-            };
-
-            if (forwardRow >= 1 && forwardRow <= 8) {
-                ChessPosition forwardPos = new ChessPosition(forwardRow, col);
-
-                if (board.getPiece(forwardPos) == null) {
-                    addMove.accept(forwardPos);
-
-                    if (row == startRow) {
-                        ChessPosition doublePos = new ChessPosition(doubleJumpRow, col);
-                        if (board.getPiece(doublePos) == null) {
-                            addMove.accept(doublePos);
-                        }
-                    }
-                }
-            }
-
-            int[] captureCols = {col - 1, col + 1};
-            for (int captureCol : captureCols) {
-                if (captureCol >= 1 && captureCol <= 8 && forwardRow >= 1 && forwardRow <= 8) {
-                    ChessPosition targetPos = new ChessPosition(forwardRow, captureCol);
-                    ChessPiece targetPiece = board.getPiece(targetPos);
-                    if (targetPiece != null && targetPiece.getTeamColor() != pieceColor) {
-                        addMove.accept(targetPos);
-                    }
-                }
-            }
-        }
-        return validMoves;
+        return MoveGenerator.pieceMoves(board, this, pos);
     }
 
     @Override
@@ -194,7 +96,11 @@ public class ChessPiece implements Serializable {
 
     @Override
     public int hashCode() {
-        return Objects.hash(pieceColor, type);
+        return 31 * pieceColor.hashCode() + type.hashCode();
+    }
+
+    private Object readResolve() {
+        return of(pieceColor, type);
     }
 
     @Override
@@ -218,4 +124,49 @@ public class ChessPiece implements Serializable {
         }
         return s;
     }
+
+    /**
+     * Reads and writes pieces in the usual {"pieceColor":..,"type":..} form, but hands
+     * back the shared instance when reading
+     */
+    static class Adapter extends TypeAdapter<ChessPiece> {
+
+        @Override
+        public void write(JsonWriter out, ChessPiece piece) throws IOException {
+            if (piece == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("pieceColor").value(piece.pieceColor.name());
+            out.name("type").value(piece.type.name());
+            out.endObject();
+        }
+
+        @Override
+        public ChessPiece read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            ChessGame.TeamColor color = null;
+            PieceType type = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                var name = in.nextName();
+                if (name.equals("pieceColor")) {
+                    color = ChessGame.TeamColor.valueOf(in.nextString());
+                } else if (name.equals("type")) {
+                    type = PieceType.valueOf(in.nextString());
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            if (color == null || type == null) {
+                throw new IOException("Chess piece is missing its color or type");
+            }
+            return of(color, type);
+        }
+    }
 }
@@ -1,7 +1,13 @@
 package chess;
 
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
 import java.io.Serializable;
-import java.util.Objects;
 
 /**
  * Represents a single square position on a chess board
@@ -9,8 +15,20 @@ import java.util.Objects;
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(ChessPosition.Adapter.class)
 public class ChessPosition implements Serializable {
 
+    // One shared instance per square, indexed the same way as Bitboard squares
+    private static final ChessPosition[] POSITIONS = new ChessPosition[64];
+
+    static {
+        for (var row = 1; row <= 8; row++) {
+            for (var col = 1; col <= 8; col++) {
+                POSITIONS[(row - 1) * 8 + (col - 1)] = new ChessPosition(row, col);
+            }
+        }
+    }
+
     private final int row;
     private final int col;
 
@@ -19,6 +37,19 @@ public class ChessPosition implements Serializable {
         this.col = col;
     }
 
+    /**
+     * Gets the shared instance for a square instead of allocating a new one.
+     * Positions off the board are not cached and get a fresh instance.
+     *
+     * @return the position at a row and column
+     */
+    public static ChessPosition of(int row, int col) {
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            return new ChessPosition(row, col);
+        }
+        return POSITIONS[(row - 1) * 8 + (col - 1)];
+    }
+
     /**
      * @return which row this position is in
      * 1 codes for the bottom row
@@ -51,6 +82,52 @@ public class ChessPosition implements Serializable {
 
     @Override
     public int hashCode() {
-        return Objects.hash(row, col);
+        return 31 * row + col;
+    }
+
+    private Object readResolve() {
+        return of(row, col);
+    }
+
+    /**
+     * Reads and writes positions in the usual {"row":r,"col":c} form, but hands back
+     * the shared instance when reading
+     */
+    static class Adapter extends TypeAdapter<ChessPosition> {
+
+        @Override
+        public void write(JsonWriter out, ChessPosition position) throws IOException {
+            if (position == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("row").value(position.row);
+            out.name("col").value(position.col);
+            out.endObject();
+        }
+
+        @Override
+        public ChessPosition read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            var row = 0;
+            var col = 0;
+            in.beginObject();
+            while (in.hasNext()) {
+                var name = in.nextName();
+                if (name.equals("row")) {
+                    row = in.nextInt();
+                } else if (name.equals("col")) {
+                    col = in.nextInt();
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return of(row, col);
+        }
     }
 }
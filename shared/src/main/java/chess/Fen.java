@@ -0,0 +1,121 @@
+package chess;
+
+/**
+ * Reads chess positions written in Forsyth-Edwards Notation, such as
+ * {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1}
+ * <p>
+ * The castling, en passant and halfmove clock fields are optional and default to
+ * none, none and zero. The fullmove number is accepted but ignored.
+ */
+public final class Fen {
+
+    public static final String START_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private Fen() {
+
+    }
+
+    /**
+     * Builds a game at the position a FEN string describes
+     *
+     * @param fen the position to set up
+     * @return a game with that position and side to move
+     * @throws IllegalArgumentException if the string is not a valid position
+     */
+    public static ChessGame parse(String fen) {
+        var fields = fen.trim().split("\\s+");
+        if (fields.length < 2) {
+            throw new IllegalArgumentException("FEN needs at least a board and a side to move: " + fen);
+        }
+        var board = new ChessBoard();
+        parsePlacement(fields[0], board.bitboard);
+
+        ChessGame.TeamColor turn;
+        if (fields[1].equals("w")) {
+            turn = ChessGame.TeamColor.WHITE;
+        } else if (fields[1].equals("b")) {
+            turn = ChessGame.TeamColor.BLACK;
+        } else {
+            throw new IllegalArgumentException("Unknown side to move: " + fields[1]);
+        }
+        if (fields.length > 2) {
+            board.bitboard.castlingRights = parseCastling(fields[2]);
+        }
+        if (fields.length > 3 && !fields[3].equals("-")) {
+            board.bitboard.enPassantSquare = parseSquare(fields[3]);
+        }
+        if (fields.length > 4) {
+            try {
+                board.bitboard.halfmoveClock = Integer.parseInt(fields[4]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad halfmove clock: " + fields[4]);
+            }
+        }
+        return ChessGame.fromPosition(board, turn);
+    }
+
+    private static void parsePlacement(String placement, Bitboard bitboard) {
+        var ranks = placement.split("/");
+        if (ranks.length != 8) {
+            throw new IllegalArgumentException("FEN board needs 8 rows: " + placement);
+        }
+        for (var i = 0; i < 8; i++) {
+            var row = 8 - i;
+            var col = 1;
+            for (var c : ranks[i].toCharArray()) {
+                if (Character.isDigit(c)) {
+                    col += c - '0';
+                } else {
+                    var square = Bitboard.square(row, col);
+                    if (square < 0) {
+                        throw new IllegalArgumentException("Row " + row + " is too long: " + ranks[i]);
+                    }
+                    bitboard.put(square, pieceIndex(c));
+                    col++;
+                }
+            }
+            if (col != 9) {
+                throw new IllegalArgumentException("Row " + row + " does not have 8 squares: " + ranks[i]);
+            }
+        }
+    }
+
+    private static int pieceIndex(char c) {
+        var color = Character.isUpperCase(c) ? Bitboard.WHITE : Bitboard.BLACK;
+        var type = switch (Character.toLowerCase(c)) {
+            case 'k' -> Bitboard.KING;
+            case 'q' -> Bitboard.QUEEN;
+            case 'b' -> Bitboard.BISHOP;
+            case 'n' -> Bitboard.KNIGHT;
+            case 'r' -> Bitboard.ROOK;
+            case 'p' -> Bitboard.PAWN;
+            default -> throw new IllegalArgumentException("Unknown piece: " + c);
+        };
+        return Bitboard.pieceIndex(color, type);
+    }
+
+    private static int parseCastling(String castling) {
+        var rights = 0;
+        if (castling.equals("-")) {
+            return rights;
+        }
+        for (var c : castling.toCharArray()) {
+            rights |= switch (c) {
+                case 'K' -> Bitboard.WHITE_KINGSIDE;
+                case 'Q' -> Bitboard.WHITE_QUEENSIDE;
+                case 'k' -> Bitboard.BLACK_KINGSIDE;
+                case 'q' -> Bitboard.BLACK_QUEENSIDE;
+                default -> throw new IllegalArgumentException("Unknown castling right: " + c);
+            };
+        }
+        return rights;
+    }
+
+    private static int parseSquare(String name) {
+        var square = name.length() == 2 ? Bitboard.square(name.charAt(1) - '0', name.charAt(0) - 'a' + 1) : -1;
+        if (square < 0) {
+            throw new IllegalArgumentException("Bad square: " + name);
+        }
+        return square;
+    }
+}
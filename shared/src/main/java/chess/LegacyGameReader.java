@@ -0,0 +1,223 @@
+package chess;
+
+import chess.ChessPiece.PieceType;
+import chess.legacy.ChessBoard;
+import chess.legacy.ChessPiece;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads games that were stored with Java serialization, before
+ * {@link ChessGameCodec}. Those streams name the old board classes, which no longer
+ * exist in this form, so they are read into the copies in {@code chess.legacy} and
+ * rebuilt from the position they describe.
+ * <p>
+ * The old game kept every earlier board rather than the moves, so castling rights
+ * and the en passant square are worked out from those boards. The moves themselves
+ * and the counts for repetition are lost, and the halfmove clock starts again at zero.
+ */
+public final class LegacyGameReader {
+
+    private static final Map<String, Class<?>> LEGACY_CLASSES = Map.of(
+            "chess.ChessGame", chess.legacy.ChessGame.class,
+            "chess.ChessBoard", ChessBoard.class,
+            "chess.ChessPiece", ChessPiece.class,
+            "[Lchess.ChessPiece;", ChessPiece[].class,
+            "[[Lchess.ChessPiece;", ChessPiece[][].class);
+    // Anything else in an old game's stream means it is not one
+    private static final Set<String> ALLOWED_CLASSES = Set.of(
+            "java.util.ArrayList",
+            "java.lang.Enum",
+            "chess.ChessGame$TeamColor",
+            "chess.ChessPiece$PieceType");
+
+    private LegacyGameReader() {
+
+    }
+
+    /**
+     * @return whether some bytes start with the Java serialization stream magic
+     */
+    public static boolean isLegacy(byte[] bytes) {
+        return bytes != null && bytes.length > 1 && (bytes[0] & 0xFF) == 0xAC && (bytes[1] & 0xFF) == 0xED;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not a Java-serialized game
+     */
+    public static ChessGame read(byte[] bytes) {
+        if (!isLegacy(bytes)) {
+            throw new IllegalArgumentException("Not a Java-serialized chess game");
+        }
+        chess.legacy.ChessGame legacy;
+        try (var in = new LegacyInputStream(new ByteArrayInputStream(bytes))) {
+            legacy = (chess.legacy.ChessGame) in.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            throw new IllegalArgumentException("Java-serialized chess game is unreadable", e);
+        }
+        if (legacy == null || legacy.getBoard() == null) {
+            throw new IllegalArgumentException("Java-serialized chess game has no board");
+        }
+        return toGame(legacy);
+    }
+
+    private static ChessGame toGame(chess.legacy.ChessGame legacy) {
+        var game = Fen.parse(toFen(legacy));
+        if (!legacy.isOver()) {
+            return game;
+        }
+        var turn = game.getTeamTurn();
+        var winner = legacy.getWinner();
+        ChessGame.GameStatus status;
+        if (winner == null) {
+            // The old game only ever ended in a draw by stalemate
+            status = ChessGame.GameStatus.STALEMATE;
+        } else if (winner != turn && game.isInCheckmate(turn)) {
+            status = ChessGame.GameStatus.CHECKMATE;
+        } else {
+            status = ChessGame.GameStatus.RESIGNED;
+        }
+        return ChessGame.restore(game.getBoard(), turn, game.getHistory(), status, winner, Map.of());
+    }
+
+    private static String toFen(chess.legacy.ChessGame legacy) {
+        var board = legacy.getBoard();
+        var fen = new StringBuilder();
+        for (var row = 8; row >= 1; row--) {
+            var empty = 0;
+            for (var col = 1; col <= 8; col++) {
+                var piece = board.getPiece(row, col);
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                fen.append(pieceChar(piece));
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (row > 1) {
+                fen.append('/');
+            }
+        }
+        fen.append(legacy.isWhitesTurn() ? " w " : " b ");
+        fen.append(castling(legacy));
+        fen.append(' ');
+        fen.append(enPassant(legacy));
+        return fen.toString();
+    }
+
+    private static char pieceChar(ChessPiece piece) {
+        var c = switch (piece.getPieceType()) {
+            case KING -> 'k';
+            case QUEEN -> 'q';
+            case BISHOP -> 'b';
+            case KNIGHT -> 'n';
+            case ROOK -> 'r';
+            case PAWN -> 'p';
+        };
+        return piece.getTeamColor() == ChessGame.TeamColor.WHITE ? Character.toUpperCase(c) : c;
+    }
+
+    /**
+     * A side can still castle when its king and that rook are on their starting
+     * squares now and on every earlier board, the same test the old game made
+     */
+    private static String castling(chess.legacy.ChessGame legacy) {
+        var rights = new StringBuilder();
+        if (unmoved(legacy, ChessGame.TeamColor.WHITE, 8)) {
+            rights.append('K');
+        }
+        if (unmoved(legacy, ChessGame.TeamColor.WHITE, 1)) {
+            rights.append('Q');
+        }
+        if (unmoved(legacy, ChessGame.TeamColor.BLACK, 8)) {
+            rights.append('k');
+        }
+        if (unmoved(legacy, ChessGame.TeamColor.BLACK, 1)) {
+            rights.append('q');
+        }
+        return rights.isEmpty() ? "-" : rights.toString();
+    }
+
+    private static boolean unmoved(chess.legacy.ChessGame legacy, ChessGame.TeamColor color, int rookCol) {
+        var row = color == ChessGame.TeamColor.WHITE ? 1 : 8;
+        if (!isPiece(legacy.getBoard(), row, 5, color, PieceType.KING)
+                || !isPiece(legacy.getBoard(), row, rookCol, color, PieceType.ROOK)) {
+            return false;
+        }
+        for (var board : legacy.getHistory()) {
+            if (!isPiece(board, row, 5, color, PieceType.KING)
+                    || !isPiece(board, row, rookCol, color, PieceType.ROOK)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the square behind a pawn that moved two squares on the last move, or
+     * "-" if the last move was anything else
+     */
+    private static String enPassant(chess.legacy.ChessGame legacy) {
+        List<ChessBoard> history = legacy.getHistory();
+        if (history.isEmpty()) {
+            return "-";
+        }
+        var before = history.get(history.size() - 1);
+        var after = legacy.getBoard();
+        var mover = legacy.isWhitesTurn() ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        var startRow = mover == ChessGame.TeamColor.WHITE ? 2 : 7;
+        var direction = mover == ChessGame.TeamColor.WHITE ? 1 : -1;
+        for (var col = 1; col <= 8; col++) {
+            if (isPiece(before, startRow, col, mover, PieceType.PAWN)
+                    && before.getPiece(startRow + 2 * direction, col) == null
+                    && after.getPiece(startRow, col) == null
+                    && isPiece(after, startRow + 2 * direction, col, mover, PieceType.PAWN)) {
+                return "" + (char) ('a' + col - 1) + (startRow + direction);
+            }
+        }
+        return "-";
+    }
+
+    private static boolean isPiece(ChessBoard board, int row, int col, ChessGame.TeamColor color,
+                                   PieceType type) {
+        var piece = board.getPiece(row, col);
+        return piece != null && piece.getTeamColor() == color && piece.getPieceType() == type;
+    }
+
+    /**
+     * Reads the old class names as their copies in {@code chess.legacy} and refuses
+     * every class an old game could not contain
+     */
+    private static class LegacyInputStream extends ObjectInputStream {
+
+        LegacyInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            var legacy = LEGACY_CLASSES.get(desc.getName());
+            if (legacy != null) {
+                return legacy;
+            }
+            if (!ALLOWED_CLASSES.contains(desc.getName())) {
+                throw new InvalidClassException(desc.getName(), "not part of a Java-serialized chess game");
+            }
+            return super.resolveClass(desc);
+        }
+    }
+}
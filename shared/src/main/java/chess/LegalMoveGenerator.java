@@ -0,0 +1,218 @@
+package chess;
+
+/**
+ * Generates only legal moves for one side of a position.
+ * <p>
+ * The pieces giving check and the pieces pinned to their king are worked out once
+ * when the generator is created. Every move is then restricted by those masks, so
+ * no move has to be tried on the board to see whether it leaves the king in check.
+ * The one exception is en passant, which can uncover a check along a row by
+ * removing two pawns at once and is verified by making and unmaking it.
+ */
+final class LegalMoveGenerator {
+
+    private final Bitboard board;
+    private final int color;
+    private final int enemy;
+    private final int king;
+    private final long own;
+    private final long occupied;
+    private final long checkers;
+    private final long pinned;
+    // Squares a piece other than the king may move to without ignoring a check
+    private final long checkMask;
+
+    LegalMoveGenerator(Bitboard board, int color) {
+        this.board = board;
+        this.color = color;
+        enemy = 1 - color;
+        own = board.occupancy[color];
+        occupied = board.allOccupancy;
+
+        king = board.kingSquare(color);
+        if (king == Bitboard.NO_SQUARE) {
+            checkers = 0L;
+            pinned = 0L;
+            checkMask = ~0L;
+            return;
+        }
+
+        checkers = MoveGenerator.attackersTo(board, king, enemy, occupied);
+        if (checkers == 0) {
+            checkMask = ~0L;
+        } else if (Long.bitCount(checkers) == 1) {
+            checkMask = checkers | MoveGenerator.BETWEEN[king][Long.numberOfTrailingZeros(checkers)];
+        } else {
+            checkMask = 0L;
+        }
+        pinned = findPinned();
+    }
+
+    /**
+     * Finds our pieces that stand alone between the king and an enemy slider
+     */
+    private long findPinned() {
+        var enemyBase = Bitboard.pieceIndex(enemy, 0);
+        var queens = board.pieces[enemyBase + Bitboard.QUEEN];
+        var enemies = board.occupancy[enemy];
+        var snipers = (MoveGenerator.rookAttacks(king, enemies) & (board.pieces[enemyBase + Bitboard.ROOK] | queens))
+                | (MoveGenerator.bishopAttacks(king, enemies) & (board.pieces[enemyBase + Bitboard.BISHOP] | queens));
+        var result = 0L;
+        while (snipers != 0) {
+            var sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            var blockers = MoveGenerator.BETWEEN[king][sniper] & occupied;
+            if (Long.bitCount(blockers) == 1 && (blockers & own) != 0) {
+                result |= blockers;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the legal destinations of our piece on a square, not counting castling
+     * or en passant
+     */
+    long targets(int from) {
+        var piece = board.pieceIndexAt(from);
+        var type = Bitboard.typeOf(piece);
+        if (type == Bitboard.KING) {
+            return kingTargets(from);
+        }
+        if (Long.bitCount(checkers) > 1) {
+            return 0L;
+        }
+        long targets;
+        if (type == Bitboard.PAWN) {
+            targets = MoveGenerator.pawnPushes(color, from, occupied)
+                    | (MoveGenerator.PAWN_ATTACKS[color][from] & board.occupancy[enemy]);
+        } else {
+            targets = MoveGenerator.attacks(type, color, from, occupied) & ~own;
+        }
+        targets &= checkMask;
+        if ((pinned & (1L << from)) != 0) {
+            targets &= MoveGenerator.LINE[king][from];
+        }
+        return targets;
+    }
+
+    private long kingTargets(int from) {
+        var candidates = MoveGenerator.KING_ATTACKS[from] & ~own;
+        var withoutKing = occupied & ~(1L << from);
+        var targets = 0L;
+        while (candidates != 0) {
+            var target = Long.numberOfTrailingZeros(candidates);
+            candidates &= candidates - 1;
+            if (!MoveGenerator.isSquareAttacked(board, target, enemy, withoutKing)) {
+                targets |= 1L << target;
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * @return the square our pawn on a square can capture en passant onto, or
+     * {@link Bitboard#NO_SQUARE}
+     */
+    private int enPassantTarget(int from) {
+        var target = board.enPassantSquare;
+        if (target == Bitboard.NO_SQUARE || Bitboard.row(target) != (color == Bitboard.WHITE ? 6 : 3)
+                || (MoveGenerator.PAWN_ATTACKS[color][from] & (1L << target)) == 0) {
+            return Bitboard.NO_SQUARE;
+        }
+        var undo = board.make(from, target, Bitboard.NO_PIECE);
+        var safe = king == Bitboard.NO_SQUARE
+                || !MoveGenerator.isSquareAttacked(board, king, enemy, board.allOccupancy);
+        board.unmake(from, target, undo);
+        return safe ? target : Bitboard.NO_SQUARE;
+    }
+
+    /**
+     * @return the squares the king can castle onto
+     */
+    private long castlingTargets() {
+        var homeRow = color == Bitboard.WHITE ? 1 : 8;
+        if (checkers != 0 || king != Bitboard.square(homeRow, 5)) {
+            return 0L;
+        }
+        var kingsideRight = color == Bitboard.WHITE ? Bitboard.WHITE_KINGSIDE : Bitboard.BLACK_KINGSIDE;
+        var queensideRight = color == Bitboard.WHITE ? Bitboard.WHITE_QUEENSIDE : Bitboard.BLACK_QUEENSIDE;
+        var rooks = board.pieces[Bitboard.pieceIndex(color, Bitboard.ROOK)];
+        var targets = 0L;
+        if ((board.castlingRights & kingsideRight) != 0 && (rooks & (1L << (king + 3))) != 0
+                && (occupied & MoveGenerator.BETWEEN[king][king + 3]) == 0
+                && !isAttacked(king + 1) && !isAttacked(king + 2)) {
+            targets |= 1L << (king + 2);
+        }
+        if ((board.castlingRights & queensideRight) != 0 && (rooks & (1L << (king - 4))) != 0
+                && (occupied & MoveGenerator.BETWEEN[king][king - 4]) == 0
+                && !isAttacked(king - 1) && !isAttacked(king - 2)) {
+            targets |= 1L << (king - 2);
+        }
+        return targets;
+    }
+
+    private boolean isAttacked(int square) {
+        return MoveGenerator.isSquareAttacked(board, square, enemy, occupied);
+    }
+
+    /**
+     * Looks for any legal move, stopping at the first one. The king is tried first
+     * since it is the only piece that can move in double check. Castling is never
+     * needed: if the king can castle it can also step onto the square it passes.
+     *
+     * @return true if there is at least one legal move
+     */
+    boolean hasAnyMove() {
+        if (king != Bitboard.NO_SQUARE && kingTargets(king) != 0) {
+            return true;
+        }
+        if (Long.bitCount(checkers) > 1) {
+            return false;
+        }
+        var pieces = own & ~(king == Bitboard.NO_SQUARE ? 0L : 1L << king);
+        var pawns = board.pieces[Bitboard.pieceIndex(color, Bitboard.PAWN)];
+        while (pieces != 0) {
+            var from = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            if (targets(from) != 0) {
+                return true;
+            }
+            if ((pawns & (1L << from)) != 0 && enPassantTarget(from) != Bitboard.NO_SQUARE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds every legal move for pieces on the given squares
+     *
+     * @param fromMask the squares to generate moves from
+     * @param moves    where to put the moves
+     */
+    void generate(long fromMask, MoveList moves) {
+        var pieces = fromMask & own;
+        var pawns = board.pieces[Bitboard.pieceIndex(color, Bitboard.PAWN)];
+        var enemies = board.occupancy[enemy];
+        while (pieces != 0) {
+            var from = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            var isPawn = (pawns & (1L << from)) != 0;
+            MoveGenerator.addMoves(moves, from, targets(from), enemies, isPawn);
+            if (isPawn) {
+                var enPassant = enPassantTarget(from);
+                if (enPassant != Bitboard.NO_SQUARE) {
+                    moves.add(Move.of(from, enPassant, Bitboard.NO_PIECE, Move.CAPTURE | Move.EN_PASSANT));
+                }
+            } else if (from == king) {
+                var castles = castlingTargets();
+                while (castles != 0) {
+                    var target = Long.numberOfTrailingZeros(castles);
+                    castles &= castles - 1;
+                    moves.add(Move.of(from, target, Bitboard.NO_PIECE, Move.CASTLE));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package chess;
+
+/**
+ * Packs a chess move into a single int so move generation and game history can
+ * store moves in primitive arrays instead of allocating a {@link ChessMove} each.
+ * <p>
+ * Bits 0-5 hold the starting square and bits 6-11 the ending square, numbered as
+ * in {@link Bitboard}. Bits 12-14 hold the promotion piece type plus one, or zero
+ * for no promotion. The bits above that are flags describing the move.
+ */
+public final class Move {
+
+    public static final int NONE = 0;
+
+    public static final int CAPTURE = 1 << 15;
+    public static final int EN_PASSANT = 1 << 16;
+    public static final int CASTLE = 1 << 17;
+
+    // The bits that identify a move, leaving out the descriptive flags
+    static final int SQUARES_AND_PROMOTION = 0x7FFF;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private Move() {
+
+    }
+
+    /**
+     * @param promotionType the piece type ordinal to promote to, or {@link Bitboard#NO_PIECE}
+     * @param flags         any of {@link #CAPTURE}, {@link #EN_PASSANT} and {@link #CASTLE}
+     */
+    public static int of(int from, int to, int promotionType, int flags) {
+        return from | (to << 6) | ((promotionType + 1) << 12) | flags;
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    /**
+     * @return the piece type ordinal the move promotes to, or {@link Bitboard#NO_PIECE}
+     */
+    public static int promotion(int move) {
+        return ((move >>> 12) & 0x7) - 1;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return (move & EN_PASSANT) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        return (move & CASTLE) != 0;
+    }
+
+    /**
+     * @return whether two packed moves go between the same squares with the same
+     * promotion, regardless of flags
+     */
+    public static boolean sameMove(int a, int b) {
+        return ((a ^ b) & SQUARES_AND_PROMOTION) == 0;
+    }
+
+    /**
+     * Packs a move without any flags, since a {@link ChessMove} does not carry them
+     */
+    public static int fromChessMove(ChessMove move) {
+        var promotion = move.getPromotionPiece();
+        return of(Bitboard.square(move.getStartPosition()), Bitboard.square(move.getEndPosition()),
+                promotion == null ? Bitboard.NO_PIECE : promotion.ordinal(), 0);
+    }
+
+    public static ChessMove toChessMove(int move) {
+        var from = from(move);
+        var to = to(move);
+        var promotion = promotion(move);
+        return new ChessMove(Bitboard.position(from), Bitboard.position(to),
+                promotion == Bitboard.NO_PIECE ? null : TYPES[promotion]);
+    }
+
+    public static String toString(int move) {
+        return toChessMove(move).toString();
+    }
+}
@@ -0,0 +1,269 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * Generates moves from precomputed attack tables instead of walking the board
+ * square by square.
+ * <p>
+ * Knight, king and pawn attacks are looked up directly by square. Bishop and rook
+ * attacks use PEXT-style lookup: the blockers along a slider's rays are compressed
+ * into a dense index with {@link Long#compress}, which selects the precomputed
+ * attack set for that exact blocker pattern.
+ */
+public final class MoveGenerator {
+
+    static final long[] KNIGHT_ATTACKS = new long[64];
+    static final long[] KING_ATTACKS = new long[64];
+    static final long[][] PAWN_ATTACKS = new long[2][64];
+
+    // Squares strictly between two squares on a shared row, column or diagonal
+    static final long[][] BETWEEN = new long[64][64];
+    // The whole row, column or diagonal two squares share, edge to edge
+    static final long[][] LINE = new long[64][64];
+
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final long[] BISHOP_MASKS = new long[64];
+    private static final long[][] ROOK_TABLE = new long[64][];
+    private static final long[][] BISHOP_TABLE = new long[64][];
+
+    private static final int[][] KNIGHT_STEPS = {{2, 1}, {1, 2}, {2, -1}, {-1, 2}, {-2, -1}, {-1, -2}, {-2, 1}, {1, -2}};
+    private static final int[][] KING_STEPS = {{1, 1}, {1, 0}, {1, -1}, {0, 1}, {0, -1}, {-1, 1}, {-1, 0}, {-1, -1}};
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {0, -1}, {-1, 0}, {0, 1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    private static final ChessPiece.PieceType[] PROMOTION_TYPES = {
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK,
+            ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT};
+
+    static {
+        for (var square = 0; square < 64; square++) {
+            var row = Bitboard.row(square);
+            var col = Bitboard.column(square);
+            KNIGHT_ATTACKS[square] = stepAttacks(row, col, KNIGHT_STEPS);
+            KING_ATTACKS[square] = stepAttacks(row, col, KING_STEPS);
+            PAWN_ATTACKS[Bitboard.WHITE][square] = stepAttacks(row, col, new int[][]{{1, 1}, {1, -1}});
+            PAWN_ATTACKS[Bitboard.BLACK][square] = stepAttacks(row, col, new int[][]{{-1, 1}, {-1, -1}});
+
+            ROOK_MASKS[square] = relevantBlockers(row, col, ROOK_DIRECTIONS);
+            BISHOP_MASKS[square] = relevantBlockers(row, col, BISHOP_DIRECTIONS);
+            ROOK_TABLE[square] = buildSliderTable(row, col, ROOK_MASKS[square], ROOK_DIRECTIONS);
+            BISHOP_TABLE[square] = buildSliderTable(row, col, BISHOP_MASKS[square], BISHOP_DIRECTIONS);
+        }
+        for (var a = 0; a < 64; a++) {
+            for (var b = 0; b < 64; b++) {
+                if (a == b) {
+                    continue;
+                }
+                var ends = (1L << a) | (1L << b);
+                if ((rookAttacks(a, 0L) & (1L << b)) != 0) {
+                    BETWEEN[a][b] = rookAttacks(a, 1L << b) & rookAttacks(b, 1L << a);
+                    LINE[a][b] = (rookAttacks(a, 0L) & rookAttacks(b, 0L)) | ends;
+                } else if ((bishopAttacks(a, 0L) & (1L << b)) != 0) {
+                    BETWEEN[a][b] = bishopAttacks(a, 1L << b) & bishopAttacks(b, 1L << a);
+                    LINE[a][b] = (bishopAttacks(a, 0L) & bishopAttacks(b, 0L)) | ends;
+                }
+            }
+        }
+    }
+
+    private MoveGenerator() {
+
+    }
+
+    private static long stepAttacks(int row, int col, int[][] steps) {
+        var attacks = 0L;
+        for (var step : steps) {
+            var target = Bitboard.square(row + step[0], col + step[1]);
+            if (target >= 0) {
+                attacks |= 1L << target;
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * The squares along each ray whose occupancy can change the attack set. The last
+     * square of a ray is left out because a piece there never blocks anything further.
+     */
+    private static long relevantBlockers(int row, int col, int[][] directions) {
+        var mask = 0L;
+        for (var direction : directions) {
+            var r = row + direction[0];
+            var c = col + direction[1];
+            while (Bitboard.square(r + direction[0], c + direction[1]) >= 0) {
+                mask |= 1L << Bitboard.square(r, c);
+                r += direction[0];
+                c += direction[1];
+            }
+        }
+        return mask;
+    }
+
+    private static long slowSliderAttacks(int row, int col, long occupied, int[][] directions) {
+        var attacks = 0L;
+        for (var direction : directions) {
+            var r = row + direction[0];
+            var c = col + direction[1];
+            while (Bitboard.square(r, c) >= 0) {
+                var bit = 1L << Bitboard.square(r, c);
+                attacks |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+                r += direction[0];
+                c += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    private static long[] buildSliderTable(int row, int col, long mask, int[][] directions) {
+        var table = new long[1 << Long.bitCount(mask)];
+        for (var index = 0; index < table.length; index++) {
+            var occupied = Long.expand(index, mask);
+            table[index] = slowSliderAttacks(row, col, occupied, directions);
+        }
+        return table;
+    }
+
+    static long rookAttacks(int square, long occupied) {
+        return ROOK_TABLE[square][(int) Long.compress(occupied, ROOK_MASKS[square])];
+    }
+
+    static long bishopAttacks(int square, long occupied) {
+        return BISHOP_TABLE[square][(int) Long.compress(occupied, BISHOP_MASKS[square])];
+    }
+
+    static long queenAttacks(int square, long occupied) {
+        return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+    }
+
+    /**
+     * @return every square a piece of the given type and color standing on a square
+     * attacks, given the occupied squares
+     */
+    static long attacks(int type, int color, int square, long occupied) {
+        if (type == Bitboard.PAWN) {
+            return PAWN_ATTACKS[color][square];
+        } else if (type == Bitboard.KNIGHT) {
+            return KNIGHT_ATTACKS[square];
+        } else if (type == Bitboard.BISHOP) {
+            return bishopAttacks(square, occupied);
+        } else if (type == Bitboard.ROOK) {
+            return rookAttacks(square, occupied);
+        } else if (type == Bitboard.QUEEN) {
+            return queenAttacks(square, occupied);
+        }
+        return KING_ATTACKS[square];
+    }
+
+    /**
+     * @return the pieces of the given color attacking a square, given the occupied squares
+     */
+    static long attackersTo(Bitboard board, int square, int byColor, long occupied) {
+        var pieces = board.pieces;
+        var base = Bitboard.pieceIndex(byColor, 0);
+        var queens = pieces[base + Bitboard.QUEEN];
+        return (PAWN_ATTACKS[1 - byColor][square] & pieces[base + Bitboard.PAWN])
+                | (KNIGHT_ATTACKS[square] & pieces[base + Bitboard.KNIGHT])
+                | (KING_ATTACKS[square] & pieces[base + Bitboard.KING])
+                | (bishopAttacks(square, occupied) & (pieces[base + Bitboard.BISHOP] | queens))
+                | (rookAttacks(square, occupied) & (pieces[base + Bitboard.ROOK] | queens));
+    }
+
+    /**
+     * Looks outward from a square for a piece of the given color that attacks it,
+     * stopping at the first one found.
+     *
+     * @return true if a piece of the given color attacks the square
+     */
+    static boolean isSquareAttacked(Bitboard board, int square, int byColor, long occupied) {
+        var pieces = board.pieces;
+        var base = Bitboard.pieceIndex(byColor, 0);
+        if ((PAWN_ATTACKS[1 - byColor][square] & pieces[base + Bitboard.PAWN]) != 0
+                || (KNIGHT_ATTACKS[square] & pieces[base + Bitboard.KNIGHT]) != 0
+                || (KING_ATTACKS[square] & pieces[base + Bitboard.KING]) != 0) {
+            return true;
+        }
+        var queens = pieces[base + Bitboard.QUEEN];
+        var diagonal = pieces[base + Bitboard.BISHOP] | queens;
+        if (diagonal != 0 && (bishopAttacks(square, occupied) & diagonal) != 0) {
+            return true;
+        }
+        var straight = pieces[base + Bitboard.ROOK] | queens;
+        return straight != 0 && (rookAttacks(square, occupied) & straight) != 0;
+    }
+
+    /**
+     * @return the squares a pawn can advance to from a square, without captures
+     */
+    static long pawnPushes(int color, int square, long occupied) {
+        var empty = ~occupied;
+        var from = 1L << square;
+        if (color == Bitboard.WHITE) {
+            var single = (from << 8) & empty;
+            var startRow = 0x000000000000FF00L;
+            var dbl = ((single & (startRow << 8)) << 8) & empty;
+            return single | dbl;
+        }
+        var single = (from >>> 8) & empty;
+        var startRow = 0x00FF000000000000L;
+        var dbl = ((single & (startRow >>> 8)) >>> 8) & empty;
+        return single | dbl;
+    }
+
+    /**
+     * Calculates the moves a piece could make from a position, ignoring whether
+     * they leave its own king in danger. Castling and en passant are not included.
+     *
+     * @param board the board to generate moves on
+     * @param piece the piece to move
+     * @param start where the piece starts
+     * @return Collection of moves
+     */
+    public static Collection<ChessMove> pieceMoves(ChessBoard board, ChessPiece piece, ChessPosition start) {
+        var moves = new MoveList();
+        pieceMoves(board.bitboard, Bitboard.pieceIndex(piece), Bitboard.square(start), moves);
+        return moves.toChessMoves(new ArrayList<>(moves.size()));
+    }
+
+    /**
+     * Adds the pseudo-legal moves of a piece standing on a square, as packed moves
+     */
+    static void pieceMoves(Bitboard board, int pieceIndex, int square, MoveList moves) {
+        var color = Bitboard.colorOf(pieceIndex);
+        var type = Bitboard.typeOf(pieceIndex);
+        var enemies = board.occupancy[1 - color];
+
+        long targets;
+        if (type == Bitboard.PAWN) {
+            targets = pawnPushes(color, square, board.allOccupancy) | (PAWN_ATTACKS[color][square] & enemies);
+        } else {
+            targets = attacks(type, color, square, board.allOccupancy) & ~board.occupancy[color];
+        }
+        addMoves(moves, square, targets, enemies, type == Bitboard.PAWN);
+    }
+
+    /**
+     * Adds a move from a square to each target, expanding pawn moves onto the last
+     * row into one move per promotion piece
+     *
+     * @param enemies the squares the opponent occupies, used to flag captures
+     */
+    static void addMoves(MoveList moves, int from, long targets, long enemies, boolean isPawn) {
+        while (targets != 0) {
+            var target = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            var flags = (enemies & (1L << target)) != 0 ? Move.CAPTURE : 0;
+            if (isPawn && (target >= 56 || target < 8)) {
+                for (var promotion : PROMOTION_TYPES) {
+                    moves.add(Move.of(from, target, promotion.ordinal(), flags));
+                }
+            } else {
+                moves.add(Move.of(from, target, Bitboard.NO_PIECE, flags));
+            }
+        }
+    }
+}
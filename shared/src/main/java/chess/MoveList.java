@@ -0,0 +1,182 @@
+package chess;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A growable list of packed {@link Move} ints backed by a plain int array, so
+ * filling and reading it never boxes or allocates per move.
+ * <p>
+ * Only the moves actually in the list are serialized, not the spare capacity.
+ */
+@JsonAdapter(MoveList.Adapter.class)
+public class MoveList implements Serializable {
+
+    private transient int[] moves;
+    private transient int size;
+
+    public MoveList() {
+        this(64);
+    }
+
+    public MoveList(int capacity) {
+        moves = new int[Math.max(capacity, 1)];
+    }
+
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return moves[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return a separate list holding the same moves, copied in one go. It keeps
+     * this list's spare capacity, so adding to the copy does not grow it straight away.
+     */
+    public MoveList copy() {
+        var copy = new MoveList(0);
+        copy.moves = Arrays.copyOf(moves, moves.length);
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * Finds a move going between the same squares with the same promotion
+     *
+     * @param move the move to look for, with or without flags
+     * @return the move as stored in this list, flags included, or {@link Move#NONE}
+     */
+    public int find(int move) {
+        for (var i = 0; i < size; i++) {
+            if (Move.sameMove(moves[i], move)) {
+                return moves[i];
+            }
+        }
+        return Move.NONE;
+    }
+
+    /**
+     * Converts every move in the list and adds it to a collection
+     *
+     * @param into the collection to add to
+     * @return the same collection
+     */
+    public <T extends Collection<ChessMove>> T toChessMoves(T into) {
+        for (var i = 0; i < size; i++) {
+            into.add(Move.toChessMove(moves[i]));
+        }
+        return into;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        MoveList that = (MoveList) o;
+        return Arrays.equals(moves, 0, size, that.moves, 0, that.size);
+    }
+
+    @Override
+    public int hashCode() {
+        var result = 1;
+        for (var i = 0; i < size; i++) {
+            result = 31 * result + moves[i];
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        var s = new StringBuilder("[");
+        for (var i = 0; i < size; i++) {
+            if (i > 0) {
+                s.append(", ");
+            }
+            s.append(Move.toString(moves[i]));
+        }
+        return s.append(']').toString();
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size);
+        for (var i = 0; i < size; i++) {
+            out.writeInt(moves[i]);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        var count = in.readInt();
+        moves = new int[Math.max(count, 1)];
+        for (var i = 0; i < count; i++) {
+            moves[i] = in.readInt();
+        }
+        size = count;
+    }
+
+    /**
+     * Writes the list as a plain JSON array of packed moves
+     */
+    static class Adapter extends TypeAdapter<MoveList> {
+
+        @Override
+        public void write(JsonWriter out, MoveList list) throws IOException {
+            if (list == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginArray();
+            for (var i = 0; i < list.size; i++) {
+                out.value(list.moves[i]);
+            }
+            out.endArray();
+        }
+
+        @Override
+        public MoveList read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            var list = new MoveList();
+            in.beginArray();
+            while (in.hasNext()) {
+                list.add(in.nextInt());
+            }
+            in.endArray();
+            return list;
+        }
+    }
+}
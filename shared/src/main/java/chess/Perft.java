@@ -0,0 +1,169 @@
+package chess;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth ("perft"). The
+ * counts for well known positions are published, so a mismatch points straight
+ * at a move generation bug, and the time taken measures generator speed.
+ * <p>
+ * Run from the shared module with {@code mvn exec:java}. With no arguments every
+ * reference position is checked. Otherwise:
+ * <pre>
+ *   perft &lt;depth&gt; [fen]    count nodes for one position
+ *   divide &lt;depth&gt; [fen]   also count the nodes under each first move
+ * </pre>
+ * The position defaults to the starting position.
+ */
+public final class Perft {
+
+    /**
+     * A position with its known node counts, starting at depth 1
+     */
+    public record Reference(String name, String fen, long... nodes) {
+    }
+
+    public static final Reference[] REFERENCES = {
+            new Reference("start", Fen.START_POSITION,
+                    20, 400, 8902, 197281, 4865609),
+            new Reference("kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                    48, 2039, 97862, 4085603),
+            new Reference("position 3", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                    14, 191, 2812, 43238, 674624),
+            new Reference("position 4", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                    6, 264, 9467, 422333),
+            new Reference("position 5", "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                    44, 1486, 62379, 2103487),
+            new Reference("position 6", "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+                    46, 2079, 89890, 3894594),
+    };
+
+    private final Bitboard board;
+    // One reusable move list per ply so the search does not allocate
+    private final MoveList[] lists;
+
+    private Perft(ChessGame game, int depth) {
+        board = game.liveBoard().bitboard;
+        lists = new MoveList[Math.max(depth, 1)];
+        for (var i = 0; i < lists.length; i++) {
+            lists[i] = new MoveList(256);
+        }
+    }
+
+    /**
+     * Counts the positions reachable in exactly {@code depth} moves. The game is
+     * left as it was.
+     */
+    public static long perft(ChessGame game, int depth) {
+        if (depth <= 0) {
+            return 1;
+        }
+        return new Perft(game, depth).count(Bitboard.color(game.getTeamTurn()), depth);
+    }
+
+    /**
+     * Counts the positions under each legal first move
+     *
+     * @return node counts keyed by move, in a stable order
+     */
+    public static Map<String, Long> divide(ChessGame game, int depth) {
+        var result = new TreeMap<String, Long>();
+        if (depth <= 0) {
+            return result;
+        }
+        var perft = new Perft(game, depth);
+        var color = Bitboard.color(game.getTeamTurn());
+        var moves = perft.lists[depth - 1];
+        moves.clear();
+        new LegalMoveGenerator(perft.board, color).generate(~0L, moves);
+        for (var i = 0; i < moves.size(); i++) {
+            var move = moves.get(i);
+            var undo = perft.board.make(Move.from(move), Move.to(move), Move.promotion(move));
+            var nodes = depth == 1 ? 1 : perft.count(1 - color, depth - 1);
+            perft.board.unmake(Move.from(move), Move.to(move), undo);
+            result.put(Move.toString(move), nodes);
+        }
+        return result;
+    }
+
+    private long count(int color, int depth) {
+        var moves = lists[depth - 1];
+        moves.clear();
+        new LegalMoveGenerator(board, color).generate(~0L, moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+        var nodes = 0L;
+        for (var i = 0; i < moves.size(); i++) {
+            var move = moves.get(i);
+            var undo = board.make(Move.from(move), Move.to(move), Move.promotion(move));
+            nodes += count(1 - color, depth - 1);
+            board.unmake(Move.from(move), Move.to(move), undo);
+        }
+        return nodes;
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            if (!runReferences()) {
+                throw new IllegalStateException("Perft counts did not match the reference positions");
+            }
+            return;
+        }
+        var mode = args[0];
+        if (args.length < 2 || !(mode.equals("perft") || mode.equals("divide"))) {
+            throw new IllegalArgumentException("Usage: [perft|divide] <depth> [fen]");
+        }
+        var depth = Integer.parseInt(args[1]);
+        var fen = args.length > 2 ? String.join(" ", Arrays.copyOfRange(args, 2, args.length))
+                : Fen.START_POSITION;
+        var game = Fen.parse(fen);
+
+        var start = System.nanoTime();
+        long nodes;
+        if (mode.equals("divide")) {
+            var counts = divide(game, depth);
+            counts.forEach((move, count) -> System.out.println(move + ": " + count));
+            nodes = counts.values().stream().mapToLong(Long::longValue).sum();
+        } else {
+            nodes = perft(game, depth);
+        }
+        report("depth " + depth, nodes, System.nanoTime() - start);
+    }
+
+    /**
+     * Checks every reference position at every depth it has a count for
+     *
+     * @return true if every count matched
+     */
+    private static boolean runReferences() {
+        var allMatch = true;
+        var totalNodes = 0L;
+        var totalTime = 0L;
+        for (var reference : REFERENCES) {
+            for (var depth = 1; depth <= reference.nodes().length; depth++) {
+                var game = Fen.parse(reference.fen());
+                var start = System.nanoTime();
+                var nodes = perft(game, depth);
+                var elapsed = System.nanoTime() - start;
+                var expected = reference.nodes()[depth - 1];
+                var match = nodes == expected;
+                allMatch &= match;
+                totalNodes += nodes;
+                totalTime += elapsed;
+                report(reference.name() + " depth " + depth + (match ? " ok" : " MISMATCH, expected " + expected),
+                        nodes, elapsed);
+            }
+        }
+        report("total", totalNodes, totalTime);
+        return allMatch;
+    }
+
+    private static void report(String label, long nodes, long nanos) {
+        var millis = nanos / 1_000_000.0;
+        var perSecond = nanos == 0 ? 0 : (long) (nodes * 1_000_000_000.0 / nanos);
+        System.out.printf("%-40s %12d nodes %10.1f ms %,14d nodes/s%n", label, nodes, millis, perSecond);
+    }
+}
@@ -0,0 +1,44 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for Zobrist hashing. A position's key is the XOR of one key per
+ * piece on its square, one for the castling rights, one for the en passant file
+ * when a capture there is possible, and one more when black is to move.
+ * <p>
+ * The keys come from a fixed seed so a position hashes the same in every run and
+ * on every machine, which lets keys be stored and compared later.
+ */
+final class Zobrist {
+
+    private static final long SEED = 0x2F1E_C0DE_CA57_1E5EL;
+
+    // Indexed by piece index, then square
+    static final long[][] PIECE_SQUARE = new long[12][64];
+    // Indexed by the castling rights flags; no rights hashes to 0
+    static final long[] CASTLING = new long[16];
+    // Indexed by column - 1
+    static final long[] EN_PASSANT_FILE = new long[8];
+    static final long BLACK_TO_MOVE;
+
+    static {
+        var random = new SplittableRandom(SEED);
+        for (var piece = 0; piece < 12; piece++) {
+            for (var square = 0; square < 64; square++) {
+                PIECE_SQUARE[piece][square] = random.nextLong();
+            }
+        }
+        for (var rights = 1; rights < 16; rights++) {
+            CASTLING[rights] = random.nextLong();
+        }
+        for (var file = 0; file < 8; file++) {
+            EN_PASSANT_FILE[file] = random.nextLong();
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+
+    }
+}
@@ -0,0 +1,26 @@
+package chess.legacy;
+
+import java.io.Serializable;
+
+/**
+ * The fields {@link chess.ChessBoard} had when games were stored with Java
+ * serialization: a 9 by 9 array indexed by row and column from 1
+ */
+public final class ChessBoard implements Serializable {
+
+    // The default serialVersionUID the old class was given
+    private static final long serialVersionUID = 5371153528641169068L;
+
+    private ChessPiece[][] board;
+
+    private ChessBoard() {
+
+    }
+
+    /**
+     * @return the piece on a square, or null if it is empty
+     */
+    public ChessPiece getPiece(int row, int col) {
+        return board[row][col];
+    }
+}
@@ -0,0 +1,47 @@
+package chess.legacy;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The fields {@link chess.ChessGame} had when games were stored with Java
+ * serialization, before {@link chess.ChessGameCodec}. Only used to read those old
+ * games back, see {@link chess.LegacyGameReader}.
+ */
+public final class ChessGame implements Serializable {
+
+    // The default serialVersionUID the old class was given
+    private static final long serialVersionUID = -7281679168805562245L;
+
+    private boolean isWhitesTurn;
+    private ChessBoard gameboard;
+    // Every earlier board, oldest first
+    private ArrayList<ChessBoard> history;
+    private chess.ChessGame.TeamColor winner;
+    private boolean isOver;
+
+    private ChessGame() {
+
+    }
+
+    public boolean isWhitesTurn() {
+        return isWhitesTurn;
+    }
+
+    public ChessBoard getBoard() {
+        return gameboard;
+    }
+
+    public List<ChessBoard> getHistory() {
+        return history == null ? List.of() : history;
+    }
+
+    public chess.ChessGame.TeamColor getWinner() {
+        return winner;
+    }
+
+    public boolean isOver() {
+        return isOver;
+    }
+}
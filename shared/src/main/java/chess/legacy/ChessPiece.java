@@ -0,0 +1,29 @@
+package chess.legacy;
+
+import java.io.Serializable;
+
+/**
+ * The fields {@link chess.ChessPiece} had when games were stored with Java
+ * serialization
+ */
+public final class ChessPiece implements Serializable {
+
+    // The default serialVersionUID the old class was given
+    private static final long serialVersionUID = 6071039112722203830L;
+
+    private final chess.ChessGame.TeamColor pieceColor;
+    private final chess.ChessPiece.PieceType type;
+
+    private ChessPiece(chess.ChessGame.TeamColor pieceColor, chess.ChessPiece.PieceType type) {
+        this.pieceColor = pieceColor;
+        this.type = type;
+    }
+
+    public chess.ChessGame.TeamColor getTeamColor() {
+        return pieceColor;
+    }
+
+    public chess.ChessPiece.PieceType getPieceType() {
+        return type;
+    }
+}
@@ -21,11 +21,16 @@ public class UserGameCommand implements Serializable {
 
     private final ChessMove move;
 
+    // Set on CONNECT by clients that apply MOVE messages themselves instead of
+    // getting a LOAD_GAME after every move
+    private final boolean moveUpdates;
+
     public UserGameCommand(CommandType commandType, String authToken, Integer gameID) {
         this.commandType = commandType;
         this.authToken = authToken;
         this.gameID = gameID;
         this.move = null;
+        this.moveUpdates = false;
     }
 
     public UserGameCommand(CommandType commandType, String authToken, Integer gameID, ChessMove move) {
@@ -33,13 +38,24 @@ public class UserGameCommand implements Serializable {
         this.authToken = authToken;
         this.gameID = gameID;
         this.move = move;
+        this.moveUpdates = false;
+    }
+
+    public UserGameCommand(CommandType commandType, String authToken, Integer gameID, boolean moveUpdates) {
+        this.commandType = commandType;
+        this.authToken = authToken;
+        this.gameID = gameID;
+        this.move = null;
+        this.moveUpdates = moveUpdates;
     }
 
     public enum CommandType {
         CONNECT,
         MAKE_MOVE,
         LEAVE,
-        RESIGN
+        RESIGN,
+        // Asks for a LOAD_GAME of the current game, for a client that missed a MOVE
+        SYNC
     }
 
     public CommandType getCommandType() {
@@ -58,6 +74,10 @@ public class UserGameCommand implements Serializable {
         return move;
     }
 
+    public boolean wantsMoveUpdates() {
+        return moveUpdates;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -15,6 +15,11 @@ public class ServerMessage implements Serializable {
     ServerMessageType serverMessageType;
     ChessGame game;
     String message;
+    // Only in MOVE messages: the move as a packed Move int, the game's status after
+    // it, and how many moves the game has had including this one
+    Integer move;
+    ChessGame.GameStatus status;
+    Integer seq;
 
     public String getErrorMessage() {
         return "There was an error with your request.";
@@ -23,7 +28,9 @@ public class ServerMessage implements Serializable {
     public enum ServerMessageType {
         LOAD_GAME,
         ERROR,
-        NOTIFICATION
+        NOTIFICATION,
+        // One move to play on the client's copy of the game, much smaller than LOAD_GAME
+        MOVE
     }
 
     public ServerMessage(ServerMessageType type) {
@@ -40,6 +47,22 @@ public class ServerMessage implements Serializable {
         this.game = game;
     }
 
+    /**
+     * Builds a MOVE message for the last move played in a game
+     *
+     * @throws IllegalArgumentException if no move has been played in the game yet
+     */
+    public static ServerMessage move(ChessGame game) {
+        if (game.moveCount() == 0) {
+            throw new IllegalArgumentException("A MOVE message needs a game with a move played");
+        }
+        var message = new ServerMessage(ServerMessageType.MOVE);
+        message.move = game.lastMove();
+        message.status = game.getStatus();
+        message.seq = game.moveCount();
+        return message;
+    }
+
     public ServerMessageType getServerMessageType() {
         return this.serverMessageType;
     }
@@ -52,6 +75,21 @@ public class ServerMessage implements Serializable {
         return game;
     }
 
+    /**
+     * @return the move a MOVE message carries, as a packed {@link chess.Move} int
+     */
+    public Integer getMove() {
+        return move;
+    }
+
+    public ChessGame.GameStatus getStatus() {
+        return status;
+    }
+
+    public Integer getSeq() {
+        return seq;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
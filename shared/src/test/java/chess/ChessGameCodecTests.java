@@ -0,0 +1,78 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+public class ChessGameCodecTests {
+
+    @Test
+    @DisplayName("Round Trip Keeps Position and State")
+    public void roundTrip() throws InvalidMoveException {
+        var game = Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        play(game, 1, 5, 1, 7);
+        play(game, 7, 3, 5, 3);
+
+        var decoded = ChessGameCodec.decode(ChessGameCodec.encode(game));
+        Assertions.assertEquals(game, decoded);
+        Assertions.assertEquals(game.getZobristKey(), decoded.getZobristKey());
+        Assertions.assertEquals(game.getHistory(), decoded.getHistory());
+        Assertions.assertEquals(game.getStatus(), decoded.getStatus());
+        Assertions.assertEquals(game.allValidMoves(game.getTeamTurn()).size(),
+                decoded.allValidMoves(decoded.getTeamTurn()).size());
+    }
+
+    @Test
+    @DisplayName("Repetitions Carry Over")
+    public void repetitionsCarryOver() throws InvalidMoveException {
+        var game = new ChessGame();
+        play(game, 1, 7, 3, 6);
+        play(game, 8, 7, 6, 6);
+        play(game, 3, 6, 1, 7);
+        play(game, 6, 6, 8, 7);
+        play(game, 1, 7, 3, 6);
+        play(game, 8, 7, 6, 6);
+        play(game, 3, 6, 1, 7);
+
+        var decoded = ChessGameCodec.decode(ChessGameCodec.encode(game));
+        play(decoded, 6, 6, 8, 7);
+        Assertions.assertEquals(ChessGame.GameStatus.THREEFOLD_REPETITION, decoded.getStatus());
+    }
+
+    @Test
+    @DisplayName("Finished Game Keeps Result")
+    public void finishedGameKeepsResult() {
+        var game = new ChessGame();
+        game.resign(ChessGame.TeamColor.WHITE);
+        var decoded = ChessGameCodec.decode(ChessGameCodec.encode(game));
+        Assertions.assertTrue(decoded.isOver());
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, decoded.getWinner());
+        Assertions.assertEquals(ChessGame.GameStatus.RESIGNED, decoded.getStatus());
+    }
+
+    @Test
+    @DisplayName("Compact Encoding")
+    public void compactEncoding() throws InvalidMoveException {
+        var game = new ChessGame();
+        var fresh = ChessGameCodec.encode(game).length;
+        Assertions.assertTrue(fresh <= 64, "new game took " + fresh + " bytes");
+        play(game, 2, 5, 4, 5);
+        Assertions.assertTrue(ChessGameCodec.isEncoded(ChessGameCodec.encode(game)));
+    }
+
+    @Test
+    @DisplayName("Rejects Foreign Bytes")
+    public void rejectsForeignBytes() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> ChessGameCodec.decode(new byte[]{(byte) 0xAC, (byte) 0xED, 0, 5}));
+        var truncated = Arrays.copyOf(ChessGameCodec.encode(new ChessGame()), 20);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGameCodec.decode(truncated));
+    }
+
+    private static void play(ChessGame game, int fromRow, int fromCol, int toRow, int toCol)
+            throws InvalidMoveException {
+        game.makeMove(new ChessMove(ChessPosition.of(fromRow, fromCol), ChessPosition.of(toRow, toCol), null));
+    }
+}
@@ -0,0 +1,90 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class DrawTests {
+
+    @Test
+    @DisplayName("Threefold Repetition")
+    public void threefoldRepetition() throws InvalidMoveException {
+        var game = new ChessGame();
+        for (var i = 0; i < 2; i++) {
+            play(game, 1, 7, 3, 6);
+            play(game, 8, 7, 6, 6);
+            play(game, 3, 6, 1, 7);
+            Assertions.assertFalse(game.isOver());
+            play(game, 6, 6, 8, 7);
+        }
+        Assertions.assertTrue(game.isOver());
+        Assertions.assertEquals(ChessGame.GameStatus.THREEFOLD_REPETITION, game.getStatus());
+        Assertions.assertNull(game.getWinner());
+    }
+
+    @Test
+    @DisplayName("Pawn Move Resets Repetitions")
+    public void pawnMoveResetsRepetitions() throws InvalidMoveException {
+        var game = new ChessGame();
+        play(game, 1, 7, 3, 6);
+        play(game, 8, 7, 6, 6);
+        play(game, 3, 6, 1, 7);
+        play(game, 6, 6, 8, 7);
+        play(game, 2, 1, 3, 1);
+        play(game, 7, 1, 6, 1);
+        play(game, 1, 7, 3, 6);
+        play(game, 8, 7, 6, 6);
+        play(game, 3, 6, 1, 7);
+        play(game, 6, 6, 8, 7);
+        Assertions.assertFalse(game.isOver());
+        Assertions.assertEquals(ChessGame.GameStatus.IN_PROGRESS, game.getStatus());
+    }
+
+    @Test
+    @DisplayName("Fifty-Move Rule")
+    public void fiftyMoveRule() throws InvalidMoveException {
+        var game = Fen.parse("4k3/8/8/8/8/8/8/R3K3 w - - 99 80");
+        play(game, 1, 1, 2, 1);
+        Assertions.assertTrue(game.isOver());
+        Assertions.assertEquals(ChessGame.GameStatus.FIFTY_MOVE_RULE, game.getStatus());
+        Assertions.assertNull(game.getWinner());
+    }
+
+    @Test
+    @DisplayName("Checkmate Beats Fifty-Move Rule")
+    public void checkmateBeatsFiftyMoveRule() throws InvalidMoveException {
+        var game = Fen.parse("k7/8/1K6/8/8/8/8/7R w - - 99 80");
+        play(game, 1, 8, 8, 8);
+        Assertions.assertEquals(ChessGame.GameStatus.CHECKMATE, game.getStatus());
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, game.getWinner());
+    }
+
+    @Test
+    @DisplayName("Copy Plays On Separately")
+    public void copyPlaysOnSeparately() throws InvalidMoveException {
+        var game = new ChessGame();
+        play(game, 1, 7, 3, 6);
+        play(game, 8, 7, 6, 6);
+        var copy = game.copy();
+        play(copy, 3, 6, 1, 7);
+        Assertions.assertEquals(2, game.getHistory().size());
+        Assertions.assertEquals(3, copy.getHistory().size());
+        Assertions.assertEquals(game.getHistory().get(1), copy.getHistory().get(1));
+
+        // Only the copy has been back to the start, so only its repetitions count it twice
+        play(copy, 6, 6, 8, 7);
+        play(game, 3, 6, 1, 7);
+        play(game, 6, 6, 8, 7);
+        play(copy, 1, 7, 3, 6);
+        play(copy, 8, 7, 6, 6);
+        play(copy, 3, 6, 1, 7);
+        play(copy, 6, 6, 8, 7);
+        Assertions.assertEquals(ChessGame.GameStatus.THREEFOLD_REPETITION, copy.getStatus());
+        Assertions.assertEquals(ChessGame.GameStatus.IN_PROGRESS, game.getStatus());
+    }
+
+    private static void play(ChessGame game, int fromRow, int fromCol, int toRow, int toCol)
+            throws InvalidMoveException {
+        game.makeMove(new ChessMove(ChessPosition.of(fromRow, fromCol), ChessPosition.of(toRow, toCol), null));
+    }
+}
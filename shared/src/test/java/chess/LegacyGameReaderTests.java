@@ -0,0 +1,72 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+
+/**
+ * The games read here were written by the Java-serialized classes from before
+ * {@link ChessGameCodec}
+ */
+public class LegacyGameReaderTests {
+
+    @Test
+    @DisplayName("Game In Progress Keeps Position")
+    public void gameInProgress() throws IOException, InvalidMoveException {
+        // 1. e4 Nf6 2. Ke2 Rg8 3. e5 d5
+        var game = LegacyGameReader.read(load("legacy-in-progress.ser"));
+        var expected = Fen.parse("rnbqkbr1/ppp1pppp/5n2/3pP3/8/8/PPPPKPPP/RNBQ1BNR w q d6 0 1");
+        Assertions.assertEquals(expected, game);
+        Assertions.assertEquals(expected.getZobristKey(), game.getZobristKey());
+        Assertions.assertFalse(game.isOver());
+
+        game.makeMove(new ChessMove(ChessPosition.of(5, 5), ChessPosition.of(6, 4), null));
+        Assertions.assertNull(game.getBoard().getPiece(ChessPosition.of(5, 4)), "en passant did not capture");
+    }
+
+    @Test
+    @DisplayName("Checkmate Keeps Result")
+    public void checkmate() throws IOException {
+        // 1. f3 e5 2. g4 Qh4#
+        var game = LegacyGameReader.read(load("legacy-checkmate.ser"));
+        Assertions.assertTrue(game.isOver());
+        Assertions.assertEquals(ChessGame.GameStatus.CHECKMATE, game.getStatus());
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getWinner());
+    }
+
+    @Test
+    @DisplayName("Resignation Keeps Result")
+    public void resigned() throws IOException {
+        // 1. d4 d5, then white resigned
+        var game = LegacyGameReader.read(load("legacy-resigned.ser"));
+        Assertions.assertTrue(game.isOver());
+        Assertions.assertEquals(ChessGame.GameStatus.RESIGNED, game.getStatus());
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getWinner());
+        Assertions.assertEquals(Fen.parse("rnbqkbnr/ppp1pppp/8/3p4/3P4/8/PPP1PPPP/RNBQKBNR w KQkq d6 0 1").getBoard(),
+                game.getBoard());
+    }
+
+    @Test
+    @DisplayName("Rejects Other Serialized Objects")
+    public void rejectsOtherObjects() throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new ObjectOutputStream(bytes)) {
+            out.writeObject(new HashMap<String, String>());
+        }
+        Assertions.assertTrue(LegacyGameReader.isLegacy(bytes.toByteArray()));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> LegacyGameReader.read(bytes.toByteArray()));
+        Assertions.assertFalse(LegacyGameReader.isLegacy(ChessGameCodec.encode(new ChessGame())));
+    }
+
+    private static byte[] load(String name) throws IOException {
+        try (var in = LegacyGameReaderTests.class.getResourceAsStream(name)) {
+            Assertions.assertNotNull(in, "missing test resource " + name);
+            return in.readAllBytes();
+        }
+    }
+}
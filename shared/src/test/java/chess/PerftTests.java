@@ -0,0 +1,97 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class PerftTests {
+
+    // Deep enough to reach castling, en passant and promotion in every position
+    // while keeping the suite quick
+    private static final long MAX_NODES = 200_000;
+    // Going through copies of the whole game is much slower, so stay shallower there
+    private static final long PUBLIC_API_MAX_NODES = 10_000;
+
+    @Test
+    @DisplayName("Reference Positions")
+    public void referencePositions() {
+        for (var reference : Perft.REFERENCES) {
+            for (var depth = 1; depth <= reference.nodes().length; depth++) {
+                var expected = reference.nodes()[depth - 1];
+                if (expected > MAX_NODES) {
+                    break;
+                }
+                var game = Fen.parse(reference.fen());
+                Assertions.assertEquals(expected, Perft.perft(game, depth),
+                        reference.name() + " at depth " + depth);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Reference Positions Through Public API")
+    public void referencePositionsThroughPublicApi() throws InvalidMoveException {
+        for (var reference : Perft.REFERENCES) {
+            for (var depth = 1; depth <= reference.nodes().length; depth++) {
+                var expected = reference.nodes()[depth - 1];
+                if (expected > PUBLIC_API_MAX_NODES) {
+                    break;
+                }
+                var game = Fen.parse(reference.fen());
+                Assertions.assertEquals(expected, publicPerft(game, depth),
+                        reference.name() + " at depth " + depth);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Divide Sums to Perft")
+    public void divideSumsToPerft() {
+        var game = Fen.parse(Perft.REFERENCES[1].fen());
+        var counts = Perft.divide(game, 2);
+        Assertions.assertEquals(48, counts.size());
+        Assertions.assertEquals(2039, counts.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    @DisplayName("Perft Leaves Game Unchanged")
+    public void perftLeavesGameUnchanged() {
+        var game = Fen.parse(Perft.REFERENCES[1].fen());
+        var before = game.getBoard();
+        Perft.perft(game, 3);
+        Assertions.assertEquals(before, game.getBoard());
+        Assertions.assertEquals(48, game.allValidMoves(game.getTeamTurn()).size());
+    }
+
+    /**
+     * Counts positions the way a client of this package would: moves come from
+     * {@link ChessGame#validMoves} and are played with {@link ChessGame#makeMove} on a
+     * copy. Each one is also made and taken back with {@link ChessBoard#makeMove},
+     * which must reach the same board and restore the one it started from.
+     */
+    private static long publicPerft(ChessGame game, int depth) throws InvalidMoveException {
+        var nodes = 0L;
+        var board = game.getBoard();
+        for (var row = 1; row <= 8; row++) {
+            for (var col = 1; col <= 8; col++) {
+                var position = ChessPosition.of(row, col);
+                var piece = board.getPiece(position);
+                if (piece == null || piece.getTeamColor() != game.getTeamTurn()) {
+                    continue;
+                }
+                for (var move : game.validMoves(position)) {
+                    var child = game.copy();
+                    child.makeMove(move);
+
+                    var undo = board.makeMove(move);
+                    Assertions.assertEquals(child.getBoard(), board, "board after " + move);
+                    board.unmakeMove(move, undo);
+                    Assertions.assertEquals(game.getBoard(), board, "board after taking back " + move);
+
+                    nodes += depth == 1 ? 1 : publicPerft(child, depth - 1);
+                }
+            }
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,68 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ZobristTests {
+
+    @Test
+    @DisplayName("Key Survives Make and Unmake")
+    public void keySurvivesMakeAndUnmake() {
+        var game = Fen.parse(Perft.REFERENCES[1].fen());
+        var board = game.liveBoard();
+        var before = board.getZobristKey();
+        for (var move : game.allValidMoves(game.getTeamTurn())) {
+            var undo = board.makeMove(move);
+            Assertions.assertEquals(board.bitboard.computePieceKey(), board.bitboard.pieceKey, move.toString());
+            board.unmakeMove(move, undo);
+            Assertions.assertEquals(before, board.getZobristKey(), move.toString());
+        }
+    }
+
+    @Test
+    @DisplayName("Transpositions Share a Key")
+    public void transpositionsShareKey() throws InvalidMoveException {
+        var first = new ChessGame();
+        play(first, 1, 7, 3, 6);
+        play(first, 8, 7, 6, 6);
+        play(first, 1, 2, 3, 3);
+
+        var second = new ChessGame();
+        play(second, 1, 2, 3, 3);
+        play(second, 8, 7, 6, 6);
+        play(second, 1, 7, 3, 6);
+
+        Assertions.assertEquals(first.getZobristKey(), second.getZobristKey());
+        Assertions.assertEquals(first.getZobristKey(), Fen.parse(
+                "rnbqkb1r/pppppppp/5n2/8/8/2N2N2/PPPPPPPP/R1BQKB1R b KQkq - 3 2").getZobristKey());
+    }
+
+    @Test
+    @DisplayName("Side to Move and Castling Change the Key")
+    public void sideAndCastlingChangeKey() {
+        var white = Fen.parse("r3k2r/8/8/8/8/8/8/R3K2R w KQkq -");
+        var black = Fen.parse("r3k2r/8/8/8/8/8/8/R3K2R b KQkq -");
+        var noCastling = Fen.parse("r3k2r/8/8/8/8/8/8/R3K2R w - -");
+        Assertions.assertNotEquals(white.getZobristKey(), black.getZobristKey());
+        Assertions.assertNotEquals(white.getZobristKey(), noCastling.getZobristKey());
+        Assertions.assertEquals(white.getBoard().hashCode(), noCastling.getBoard().hashCode());
+    }
+
+    @Test
+    @DisplayName("En Passant Only Counts When Capturable")
+    public void enPassantOnlyWhenCapturable() {
+        var uncapturable = Fen.parse("4k3/8/8/8/4P3/8/8/4K3 b - e3");
+        var noSquare = Fen.parse("4k3/8/8/8/4P3/8/8/4K3 b - -");
+        Assertions.assertEquals(noSquare.getZobristKey(), uncapturable.getZobristKey());
+
+        var capturable = Fen.parse("4k3/8/8/8/3pP3/8/8/4K3 b - e3");
+        var capturableNoSquare = Fen.parse("4k3/8/8/8/3pP3/8/8/4K3 b - -");
+        Assertions.assertNotEquals(capturableNoSquare.getZobristKey(), capturable.getZobristKey());
+    }
+
+    private static void play(ChessGame game, int fromRow, int fromCol, int toRow, int toCol)
+            throws InvalidMoveException {
+        game.makeMove(new ChessMove(ChessPosition.of(fromRow, fromCol), ChessPosition.of(toRow, toCol), null));
+    }
+}